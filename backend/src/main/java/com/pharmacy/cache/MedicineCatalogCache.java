@@ -0,0 +1,142 @@
+package com.pharmacy.cache;
+
+import com.pharmacy.dto.MedicineDTO;
+import com.pharmacy.event.MedicineChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for medicine DTOs by id and for the full catalog listing.
+ * Entries are dropped when a MedicineChangedEvent commits, except that a stock-only change
+ * keeps the catalog and marks its row for a re-read on the next listing. A load that overlaps
+ * an invalidation is returned to its caller but not cached, so stale rows never stick.
+ */
+@Component
+public class MedicineCatalogCache {
+    
+    private static final String CATALOG_KEY = "all";
+    
+    private final TtlCache<Long, MedicineDTO> byId;
+    private final TtlCache<String, List<MedicineDTO>> catalog;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong catalogGeneration = new AtomicLong();
+    // Medicines whose stock moved since the cached catalog was read, with the change that marked them
+    private final Map<Long, Long> staleStock = new ConcurrentHashMap<>();
+    private final AtomicLong stockChanges = new AtomicLong();
+    
+    public MedicineCatalogCache(@Value("${pharmacy.catalog-cache.max-entries:10000}") int maxEntries,
+                                @Value("${pharmacy.catalog-cache.ttl-seconds:60}") long ttlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.byId = new TtlCache<>(maxEntries, ttl);
+        this.catalog = new TtlCache<>(1, ttl);
+    }
+    
+    public Optional<MedicineDTO> getById(Long id, Supplier<Optional<MedicineDTO>> loader) {
+        MedicineDTO cached = byId.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long loadedAt = generation.get();
+        Optional<MedicineDTO> loaded = loader.get();
+        loaded.ifPresent(dto -> {
+            if (generation.get() == loadedAt) {
+                byId.put(id, dto);
+            }
+        });
+        return loaded;
+    }
+    
+    // The catalog is ordered by medicine id; stale rows are re-read through the refresher
+    public List<MedicineDTO> getAll(Supplier<List<MedicineDTO>> loader,
+                                    Function<Collection<Long>, List<MedicineDTO>> refresher) {
+        long loadedAt = catalogGeneration.get();
+        List<MedicineDTO> cached = catalog.get(CATALOG_KEY);
+        if (cached != null && staleStock.isEmpty()) {
+            return cached;
+        }
+        if (cached != null) {
+            Map<Long, Long> marked = Map.copyOf(staleStock);
+            List<MedicineDTO> patched = patch(cached, refresher.apply(marked.keySet()));
+            if (catalogGeneration.get() == loadedAt) {
+                catalog.put(CATALOG_KEY, patched);
+                // A row marked again while it was being re-read stays stale
+                marked.forEach(staleStock::remove);
+            }
+            return patched;
+        }
+        long changesBefore = stockChanges.get();
+        List<MedicineDTO> loaded = List.copyOf(loader.get());
+        if (catalogGeneration.get() == loadedAt) {
+            catalog.put(CATALOG_KEY, loaded);
+            // Marks from before the load are already reflected in it
+            staleStock.values().removeIf(change -> change <= changesBefore);
+        }
+        return loaded;
+    }
+    
+    private static List<MedicineDTO> patch(List<MedicineDTO> rows, List<MedicineDTO> fresh) {
+        List<MedicineDTO> patched = new ArrayList<>(rows);
+        for (MedicineDTO row : fresh) {
+            int index = Collections.binarySearch(patched, row, Comparator.comparing(MedicineDTO::getMedicineId));
+            if (index >= 0) {
+                patched.set(index, row);
+            }
+        }
+        return List.copyOf(patched);
+    }
+    
+    // Runs immediately when published outside a transaction
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMedicineChanged(MedicineChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.isStockOnly()) {
+            staleStock.put(event.getMedicineId(), stockChanges.incrementAndGet());
+            byId.remove(event.getMedicineId());
+            return;
+        }
+        catalogGeneration.incrementAndGet();
+        catalog.clear();
+        staleStock.clear();
+        if (event.isAll()) {
+            byId.clear();
+        } else {
+            byId.remove(event.getMedicineId());
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("byId", statsOf(byId));
+        stats.put("catalog", statsOf(catalog));
+        return stats;
+    }
+    
+    private static Map<String, Object> statsOf(TtlCache<?, ?> cache) {
+        long hits = cache.getHits();
+        long lookups = hits + cache.getMisses();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", cache.size());
+        stats.put("maxEntries", cache.getMaxEntries());
+        stats.put("hits", hits);
+        stats.put("misses", cache.getMisses());
+        stats.put("evictions", cache.getEvictions());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hits / lookups);
+        return stats;
+    }
+}
@@ -0,0 +1,130 @@
+package com.pharmacy.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Small thread-safe LRU map with a hard size bound and a per-entry time to live.
+ * Memory stays constant under any traffic: the least recently used entry is dropped
+ * as soon as the bound is exceeded, and expired entries are dropped when touched.
+ * Pinned values (e.g. work still in progress) are never evicted or expired; while the
+ * least recently used entries are pinned the map may briefly hold more than the bound.
+ */
+public class TtlCache<K, V> {
+    
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Predicate<? super V> pinned;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    public TtlCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, value -> false);
+    }
+    
+    public TtlCache(int maxEntries, Duration ttl, Predicate<? super V> pinned) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.pinned = pinned;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+    
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || isStale(entry, System.nanoTime())) {
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+    
+    public synchronized void put(K key, V value) {
+        long now = System.nanoTime();
+        entries.put(key, new Entry<>(value, now + ttlNanos));
+        evict(now);
+    }
+    
+    // Returns the live value already stored for the key, or stores the new one and returns null.
+    // Not counted as a hit or miss: this claims a key rather than reading a cached value.
+    public synchronized V putIfAbsent(K key, V value) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && !isStale(entry, System.nanoTime())) {
+            return entry.value;
+        }
+        put(key, value);
+        return null;
+    }
+    
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    public long getEvictions() {
+        return evictions.get();
+    }
+    
+    // Walks from the least recently used end, dropping entries while over the bound or expired
+    private void evict(long now) {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            if (entries.size() <= maxEntries && !entry.isExpired(now)) {
+                return;
+            }
+            if (!pinned.test(entry.value)) {
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+    
+    private boolean isStale(Entry<V> entry, long now) {
+        return entry.isExpired(now) && !pinned.test(entry.value);
+    }
+    
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+        
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+        
+        private boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.pharmacy.controller;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+// Date range parameters as the frontend sends them: UTC ISO instants, local ISO date-times or plain dates
+final class DateTimeParams {
+    
+    private DateTimeParams() {
+    }
+    
+    static LocalDateTime parse(String dateTimeStr) {
+        try {
+            // Try parsing with different formats
+            if (dateTimeStr.contains("T") && dateTimeStr.contains("Z")) {
+                // Handle ISO format with Z timezone (UTC)
+                return ZonedDateTime.parse(dateTimeStr)
+                    .withZoneSameInstant(ZoneId.systemDefault())
+                    .toLocalDateTime();
+            } else if (dateTimeStr.contains("T")) {
+                // Handle ISO format without timezone
+                return LocalDateTime.parse(dateTimeStr);
+            } else {
+                // Handle date-only format
+                return LocalDate.parse(dateTimeStr).atStartOfDay();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse date: " + dateTimeStr, e);
+        }
+    }
+}
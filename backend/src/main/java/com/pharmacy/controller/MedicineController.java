@@ -1,13 +1,29 @@
 package com.pharmacy.controller;
 
+import com.pharmacy.dto.CatalogChanges;
+import com.pharmacy.dto.CursorPage;
+import com.pharmacy.dto.DataFormat;
+import com.pharmacy.dto.ImportResult;
 import com.pharmacy.dto.MedicineDTO;
+import com.pharmacy.dto.MedicineFilter;
+import com.pharmacy.dto.MedicineSearchResult;
+import com.pharmacy.dto.PagedResult;
+import com.pharmacy.service.CatalogRevisionService;
+import com.pharmacy.service.MedicineImportService;
+import com.pharmacy.service.MedicineQueryService;
+import com.pharmacy.service.MedicineSearchService;
 import com.pharmacy.service.MedicineService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/medicines")
@@ -16,11 +32,65 @@ import java.util.List;
 public class MedicineController {
     
     private final MedicineService medicineService;
+    private final MedicineSearchService medicineSearchService;
+    private final MedicineQueryService medicineQueryService;
+    private final MedicineImportService medicineImportService;
+    private final CatalogRevisionService catalogRevisionService;
     
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
-    public ResponseEntity<List<MedicineDTO>> getAllMedicines() {
-        return ResponseEntity.ok(medicineService.getAllMedicines());
+    public ResponseEntity<List<MedicineDTO>> getAllMedicines(WebRequest request) {
+        // Tagged with the revision read before the listing, so the body is never older than its tag
+        // Stock moves count too: the listing carries quantities, so a 304 must not hide a sale
+        String etag = "\"" + catalogRevisionService.visibleRevision() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(medicineService.getAllMedicines());
+    }
+    
+    // Rows written and medicines deleted after the given revision; pass back the returned revision
+    @GetMapping("/changes")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<CatalogChanges> getChanges(
+            @RequestParam long since,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(catalogRevisionService.getChanges(since, limit));
+    }
+    
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<CursorPage<MedicineDTO>> getMedicinesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(medicineService.getMedicinesPage(cursor, size));
+    }
+    
+    @GetMapping("/query")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<PagedResult<MedicineDTO>> queryMedicines(MedicineFilter filter) {
+        return ResponseEntity.ok(medicineQueryService.query(filter));
+    }
+    
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<List<MedicineSearchResult>> searchMedicines(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(medicineSearchService.search(query, limit));
+    }
+    
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(medicineService.getCacheStats());
+    }
+    
+    // Scanner checkout: GTIN-8/12/13/14, resolved from memory
+    @GetMapping("/by-barcode/{code}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<MedicineDTO> getMedicineByBarcode(@PathVariable String code) {
+        return ResponseEntity.ok(medicineService.getMedicineByBarcode(code));
     }
     
     @GetMapping("/{id}")
@@ -35,6 +105,15 @@ public class MedicineController {
         return ResponseEntity.ok(medicineService.createMedicine(medicineDTO));
     }
     
+    // The request body is streamed: CSV with a header row, or NDJSON / a JSON array of rows
+    @PostMapping("/import")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public ResponseEntity<ImportResult> importMedicines(
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(medicineImportService.importMedicines(DataFormat.from(format), request.getInputStream()));
+    }
+    
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
     public ResponseEntity<MedicineDTO> updateMedicine(@PathVariable Long id, @RequestBody MedicineDTO medicineDTO) {
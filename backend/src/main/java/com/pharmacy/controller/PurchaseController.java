@@ -1,13 +1,20 @@
 package com.pharmacy.controller;
 
+import com.pharmacy.dto.CursorPage;
+import com.pharmacy.dto.DataFormat;
 import com.pharmacy.dto.PurchaseDTO;
+import com.pharmacy.service.ExportService;
+import com.pharmacy.service.IdempotencyService;
 import com.pharmacy.service.PurchaseService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -18,6 +25,8 @@ import java.util.List;
 public class PurchaseController {
     
     private final PurchaseService purchaseService;
+    private final IdempotencyService idempotencyService;
+    private final ExportService exportService;
     
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
@@ -25,10 +34,21 @@ public class PurchaseController {
         return ResponseEntity.ok(purchaseService.getAllPurchases());
     }
     
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public ResponseEntity<CursorPage<PurchaseDTO>> getPurchasesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(purchaseService.getPurchasesPage(cursor, size));
+    }
+    
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
-    public ResponseEntity<PurchaseDTO> createPurchase(@RequestBody PurchaseDTO purchaseDTO) {
-        return ResponseEntity.ok(purchaseService.createPurchase(purchaseDTO));
+    public ResponseEntity<PurchaseDTO> createPurchase(
+            @RequestBody PurchaseDTO purchaseDTO,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(idempotencyService.execute("purchase", idempotencyKey, purchaseDTO,
+                () -> purchaseService.createPurchase(purchaseDTO)));
     }
     
     @GetMapping("/date-range")
@@ -37,8 +57,8 @@ public class PurchaseController {
             @RequestParam String startDate,
             @RequestParam String endDate) {
         try {
-            LocalDateTime start = parseDateTime(startDate);
-            LocalDateTime end = parseDateTime(endDate);
+            LocalDateTime start = DateTimeParams.parse(startDate);
+            LocalDateTime end = DateTimeParams.parse(endDate);
             return ResponseEntity.ok(purchaseService.getPurchasesByDateRange(start, end));
         } catch (Exception e) {
             System.err.println("Error parsing dates: " + e.getMessage());
@@ -47,23 +67,21 @@ public class PurchaseController {
         }
     }
     
-    private LocalDateTime parseDateTime(String dateTimeStr) {
-        try {
-            // Try parsing with different formats
-            if (dateTimeStr.contains("T") && dateTimeStr.contains("Z")) {
-                // Handle ISO format with Z timezone (UTC)
-                return java.time.ZonedDateTime.parse(dateTimeStr)
-                    .withZoneSameInstant(java.time.ZoneId.systemDefault())
-                    .toLocalDateTime();
-            } else if (dateTimeStr.contains("T")) {
-                // Handle ISO format without timezone
-                return LocalDateTime.parse(dateTimeStr);
-            } else {
-                // Handle date-only format
-                return java.time.LocalDate.parse(dateTimeStr).atStartOfDay();
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse date: " + dateTimeStr, e);
-        }
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public void exportPurchases(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        LocalDateTime start = DateTimeParams.parse(startDate);
+        LocalDateTime end = DateTimeParams.parse(endDate);
+        DataFormat exportFormat = DataFormat.from(format);
+        
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"purchases." + exportFormat.getExtension() + "\"");
+        exportService.exportPurchases(start, end, exportFormat, response.getWriter());
     }
 }
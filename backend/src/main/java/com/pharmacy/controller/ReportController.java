@@ -1,14 +1,30 @@
 package com.pharmacy.controller;
 
+import com.pharmacy.dto.CursorPage;
+import com.pharmacy.dto.ExpiryItemDTO;
+import com.pharmacy.dto.ExpirySummaryDTO;
+import com.pharmacy.dto.ForecastDTO;
+import com.pharmacy.dto.LotExpiryDTO;
+import com.pharmacy.dto.MedicineDTO;
+import com.pharmacy.dto.PagedResult;
+import com.pharmacy.dto.ReportJobDTO;
 import com.pharmacy.dto.StockReportDTO;
-import com.pharmacy.model.Medicine;
+import com.pharmacy.dto.StockReportPage;
+import com.pharmacy.dto.TopSellerDTO;
+import com.pharmacy.service.DemandForecastService;
+import com.pharmacy.service.MedicineService;
+import com.pharmacy.service.ReportJobService;
 import com.pharmacy.service.ReportService;
+import com.pharmacy.service.StockLotService;
+import com.pharmacy.service.StockReportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -17,6 +33,11 @@ import java.util.List;
 public class ReportController {
     
     private final ReportService reportService;
+    private final DemandForecastService demandForecastService;
+    private final MedicineService medicineService;
+    private final StockLotService stockLotService;
+    private final StockReportService stockReportService;
+    private final ReportJobService reportJobService;
     
     @GetMapping("/stock")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
@@ -24,15 +45,125 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getStockReport());
     }
     
+    @GetMapping("/stock/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<StockReportPage> getStockReportPage(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        StockReportService.Status filter = status != null && !status.isBlank() ? StockReportService.Status.from(status) : null;
+        return ResponseEntity.ok(stockReportService.query(filter, category, page, size));
+    }
+    
+    // Capped at ReportService.MAX_EXPIRY_LIST rows; X-Total-Count and X-Truncated tell the client
+    // when /expiry/page is needed to see the rest
     @GetMapping("/expiry")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
-    public ResponseEntity<List<Medicine>> getExpiryReport() {
-        return ResponseEntity.ok(reportService.getExpiryReport());
+    public ResponseEntity<List<ExpiryItemDTO>> getExpiryReport() {
+        return cappedList(reportService.getExpiryReport());
+    }
+    
+    @GetMapping("/expiry/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<PagedResult<ExpiryItemDTO>> getExpiryPage(
+            @RequestParam(defaultValue = "30") String window,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reportService.getExpiryPage(ReportService.ExpiryWindow.from(window), page, size));
+    }
+    
+    @GetMapping("/expiry/summary")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<ExpirySummaryDTO> getExpirySummary() {
+        return ResponseEntity.ok(reportService.getExpirySummary());
     }
     
     @GetMapping("/expiring")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
-    public ResponseEntity<List<Medicine>> getExpiringMedicines(@RequestParam(defaultValue = "30") int days) {
-        return ResponseEntity.ok(reportService.getExpiringMedicines(days));
+    public ResponseEntity<List<ExpiryItemDTO>> getExpiringMedicines(@RequestParam(defaultValue = "30") int days) {
+        return cappedList(reportService.getExpiringMedicines(days));
+    }
+    
+    private static ResponseEntity<List<ExpiryItemDTO>> cappedList(PagedResult<ExpiryItemDTO> result) {
+        boolean truncated = result.getTotalElements() > result.getItems().size();
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(result.getTotalElements()))
+                .header("X-Truncated", String.valueOf(truncated))
+                .body(result.getItems());
+    }
+    
+    // Open lots expiring within the window, already expired ones included, soonest first
+    @GetMapping("/expiry/lots")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public ResponseEntity<List<LotExpiryDTO>> getExpiringLots(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(stockLotService.getExpiringLots(days, limit));
+    }
+    
+    @GetMapping("/low-stock")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<CursorPage<MedicineDTO>> getLowStock(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(medicineService.getLowStockPage(cursor, size));
+    }
+    
+    @GetMapping("/low-stock/count")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<Map<String, Long>> countLowStock() {
+        return ResponseEntity.ok(Map.of("count", medicineService.countLowStock()));
+    }
+    
+    @GetMapping("/top-sellers")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public ResponseEntity<List<TopSellerDTO>> getTopSellers(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "units") String metric,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "top") String order) {
+        LocalDateTime start = DateTimeParams.parse(startDate);
+        LocalDateTime end = DateTimeParams.parse(endDate);
+        boolean slowest;
+        if ("slow".equalsIgnoreCase(order)) {
+            slowest = true;
+        } else if ("top".equalsIgnoreCase(order)) {
+            slowest = false;
+        } else {
+            throw new RuntimeException("Unsupported order: " + order);
+        }
+        return ResponseEntity.ok(reportService.getTopSellers(start, end, ReportService.Metric.from(metric), limit, slowest));
+    }
+    
+    @GetMapping("/forecast")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public ResponseEntity<List<ForecastDTO>> getForecast(@RequestParam(defaultValue = "false") boolean reorderOnly) {
+        return ResponseEntity.ok(demandForecastService.getForecast(reorderOnly));
+    }
+    
+    // Heavy reports run as jobs: submit, poll the status, then fetch the result once DONE.
+    // Report parameters (from, to, metric, limit, order, reorderOnly) are passed as query parameters.
+    @PostMapping("/jobs")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public ResponseEntity<ReportJobDTO> submitJob(
+            @RequestParam String type,
+            @RequestParam(required = false) String priority,
+            @RequestParam Map<String, String> params) {
+        return ResponseEntity.accepted().body(reportJobService.submit(ReportJobService.Type.from(type),
+                ReportJobService.Priority.from(priority), params));
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public ResponseEntity<ReportJobDTO> getJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(reportJobService.getJob(jobId));
+    }
+    
+    @GetMapping("/jobs/{jobId}/result")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public ResponseEntity<Object> getJobResult(@PathVariable String jobId) {
+        return ResponseEntity.ok(reportJobService.getResult(jobId));
     }
 }
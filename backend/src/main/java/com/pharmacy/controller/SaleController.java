@@ -1,15 +1,29 @@
 package com.pharmacy.controller;
 
+import com.pharmacy.dto.BasketRequest;
+import com.pharmacy.dto.BasketResponse;
+import com.pharmacy.dto.CursorPage;
+import com.pharmacy.dto.DataFormat;
+import com.pharmacy.dto.LiveSalesSnapshot;
 import com.pharmacy.dto.SaleRequest;
 import com.pharmacy.dto.SaleResponse;
+import com.pharmacy.dto.SalesSeriesPoint;
+import com.pharmacy.dto.SalesTotals;
+import com.pharmacy.model.Sale;
+import com.pharmacy.service.ExportService;
+import com.pharmacy.service.IdempotencyService;
 import com.pharmacy.service.SaleService;
+import com.pharmacy.service.SalesSeriesService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -22,6 +36,9 @@ import java.util.Map;
 public class SaleController {
     
     private final SaleService saleService;
+    private final IdempotencyService idempotencyService;
+    private final ExportService exportService;
+    private final SalesSeriesService salesSeriesService;
     
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
@@ -29,10 +46,42 @@ public class SaleController {
         return ResponseEntity.ok(saleService.getAllSales());
     }
     
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<CursorPage<SaleResponse>> getSalesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(saleService.getSalesPage(cursor, size));
+    }
+    
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
-    public ResponseEntity<SaleResponse> createSale(@RequestBody SaleRequest request) {
-        return ResponseEntity.ok(saleService.createSale(request));
+    public ResponseEntity<SaleResponse> createSale(
+            @RequestBody SaleRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(idempotencyService.execute("sale", idempotencyKey, request,
+                () -> saleService.createSale(request)));
+    }
+    
+    @PostMapping("/basket")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<BasketResponse> createBasketSale(
+            @RequestBody BasketRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(idempotencyService.execute("basket", idempotencyKey, request,
+                () -> saleService.createBasketSale(request)));
+    }
+    
+    @PostMapping("/{id}/return")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<SaleResponse> returnSale(@PathVariable Long id) {
+        return ResponseEntity.ok(saleService.reverseSale(id, Sale.ReversalType.RETURN));
+    }
+    
+    @PostMapping("/{id}/void")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST')")
+    public ResponseEntity<SaleResponse> voidSale(@PathVariable Long id) {
+        return ResponseEntity.ok(saleService.reverseSale(id, Sale.ReversalType.VOID));
     }
     
     @GetMapping("/date-range")
@@ -41,8 +90,8 @@ public class SaleController {
             @RequestParam String startDate,
             @RequestParam String endDate) {
         try {
-            LocalDateTime start = parseDateTime(startDate);
-            LocalDateTime end = parseDateTime(endDate);
+            LocalDateTime start = DateTimeParams.parse(startDate);
+            LocalDateTime end = DateTimeParams.parse(endDate);
             return ResponseEntity.ok(saleService.getSalesByDateRange(start, end));
         } catch (Exception e) {
             System.err.println("Error parsing dates: " + e.getMessage());
@@ -51,21 +100,28 @@ public class SaleController {
         }
     }
     
+    @GetMapping("/today")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<LiveSalesSnapshot> getTodaySnapshot() {
+        return ResponseEntity.ok(saleService.getTodaySnapshot());
+    }
+    
     @GetMapping("/summary")
     @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
     public ResponseEntity<Map<String, BigDecimal>> getSalesSummary(
             @RequestParam String startDate,
             @RequestParam String endDate) {
         try {
-            LocalDateTime start = parseDateTime(startDate);
-            LocalDateTime end = parseDateTime(endDate);
+            LocalDateTime start = DateTimeParams.parse(startDate);
+            LocalDateTime end = DateTimeParams.parse(endDate);
             
-            BigDecimal totalProfit = saleService.getTotalProfit(start, end);
-            BigDecimal totalRevenue = saleService.getTotalRevenue(start, end);
+            SalesTotals totals = saleService.getSalesSummary(start, end);
             
             Map<String, BigDecimal> summary = new HashMap<>();
-            summary.put("totalProfit", totalProfit);
-            summary.put("totalRevenue", totalRevenue);
+            summary.put("totalProfit", totals.getProfit());
+            summary.put("totalRevenue", totals.getRevenue());
+            summary.put("unitsSold", BigDecimal.valueOf(totals.getUnits()));
+            summary.put("transactionCount", BigDecimal.valueOf(totals.getTransactions()));
             
             return ResponseEntity.ok(summary);
         } catch (Exception e) {
@@ -75,23 +131,32 @@ public class SaleController {
         }
     }
     
-    private LocalDateTime parseDateTime(String dateTimeStr) {
-        try {
-            // Try parsing with different formats
-            if (dateTimeStr.contains("T") && dateTimeStr.contains("Z")) {
-                // Handle ISO format with Z timezone (UTC)
-                return java.time.ZonedDateTime.parse(dateTimeStr)
-                    .withZoneSameInstant(java.time.ZoneId.systemDefault())
-                    .toLocalDateTime();
-            } else if (dateTimeStr.contains("T")) {
-                // Handle ISO format without timezone
-                return LocalDateTime.parse(dateTimeStr);
-            } else {
-                // Handle date-only format
-                return java.time.LocalDate.parse(dateTimeStr).atStartOfDay();
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse date: " + dateTimeStr, e);
-        }
+    @GetMapping("/series")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public ResponseEntity<List<SalesSeriesPoint>> getSalesSeries(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "day") String interval) {
+        LocalDateTime start = DateTimeParams.parse(startDate);
+        LocalDateTime end = DateTimeParams.parse(endDate);
+        return ResponseEntity.ok(salesSeriesService.getSeries(start, end, SalesSeriesService.Interval.from(interval)));
+    }
+    
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'PHARMACIST', 'CASHIER')")
+    public void exportSales(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        LocalDateTime start = DateTimeParams.parse(startDate);
+        LocalDateTime end = DateTimeParams.parse(endDate);
+        DataFormat exportFormat = DataFormat.from(format);
+        
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"sales." + exportFormat.getExtension() + "\"");
+        exportService.exportSales(start, end, exportFormat, response.getWriter());
     }
 }
@@ -1,5 +1,6 @@
 package com.pharmacy.controller;
 
+import com.pharmacy.dto.CursorPage;
 import com.pharmacy.model.User;
 import com.pharmacy.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +24,14 @@ public class UserController {
         return ResponseEntity.ok(userService.getAllUsers());
     }
     
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<User>> getUsersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(userService.getUsersPage(cursor, size));
+    }
+    
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
@@ -0,0 +1,23 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class BasketRequest {
+    private List<SaleRequest> items = new ArrayList<>();
+    
+    // Getters
+    public List<SaleRequest> getItems() {
+        return items;
+    }
+    
+    // Setters
+    public void setItems(List<SaleRequest> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,70 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class BasketResponse {
+    private List<SaleResponse> items = new ArrayList<>();
+    private Integer totalQuantity;
+    private BigDecimal totalAmount;
+    private BigDecimal totalProfit;
+    private LocalDateTime saleDate;
+    private String userName;
+    
+    // Getters
+    public List<SaleResponse> getItems() {
+        return items;
+    }
+    
+    public Integer getTotalQuantity() {
+        return totalQuantity;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public BigDecimal getTotalProfit() {
+        return totalProfit;
+    }
+    
+    public LocalDateTime getSaleDate() {
+        return saleDate;
+    }
+    
+    public String getUserName() {
+        return userName;
+    }
+    
+    // Setters
+    public void setItems(List<SaleResponse> items) {
+        this.items = items;
+    }
+    
+    public void setTotalQuantity(Integer totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+    
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+    
+    public void setTotalProfit(BigDecimal totalProfit) {
+        this.totalProfit = totalProfit;
+    }
+    
+    public void setSaleDate(LocalDateTime saleDate) {
+        this.saleDate = saleDate;
+    }
+    
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+}
@@ -0,0 +1,58 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChanges {
+    private Long since;
+    private Long revision;
+    private List<MedicineDTO> changed;
+    private List<Long> deleted;
+    private Boolean hasMore;
+    
+    // Getters
+    public Long getSince() {
+        return since;
+    }
+    
+    public Long getRevision() {
+        return revision;
+    }
+    
+    public List<MedicineDTO> getChanged() {
+        return changed;
+    }
+    
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+    
+    public Boolean getHasMore() {
+        return hasMore;
+    }
+    
+    // Setters
+    public void setSince(Long since) {
+        this.since = since;
+    }
+    
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+    
+    public void setChanged(List<MedicineDTO> changed) {
+        this.changed = changed;
+    }
+    
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+    
+    public void setHasMore(Boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,89 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+    
+    private List<T> items = new ArrayList<>();
+    private Integer size;
+    private Boolean hasMore;
+    private String nextCursor;
+    
+    // Builds a page from up to size + 1 rows; the extra row only signals that more exist
+    public static <R, T> CursorPage<T> of(List<R> rows, int size, Function<R, Long> keyOf, Function<R, T> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<R> pageRows = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? encodeCursor(keyOf.apply(pageRows.get(pageRows.size() - 1))) : null;
+        List<T> items = pageRows.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPage<>(items, size, hasMore, nextCursor);
+    }
+    
+    public static int clampSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+    
+    public static String encodeCursor(Long key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(key).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+    
+    // Getters
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public Integer getSize() {
+        return size;
+    }
+    
+    public Boolean getHasMore() {
+        return hasMore;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    // Setters
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+    
+    public void setHasMore(Boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
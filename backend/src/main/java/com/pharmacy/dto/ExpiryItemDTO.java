@@ -0,0 +1,58 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiryItemDTO {
+    private Long medicineId;
+    private String name;
+    private String category;
+    private Integer quantity;
+    private LocalDate expiryDate;
+    
+    // Getters
+    public Long getMedicineId() {
+        return medicineId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+    
+    // Setters
+    public void setMedicineId(Long medicineId) {
+        this.medicineId = medicineId;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+    
+    public void setExpiryDate(LocalDate expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+}
@@ -0,0 +1,58 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpirySummaryDTO {
+    private LocalDate asOf;
+    private Long expired;
+    private Long within30Days;
+    private Long within60Days;
+    private Long within90Days;
+    
+    // Getters
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+    
+    public Long getExpired() {
+        return expired;
+    }
+    
+    public Long getWithin30Days() {
+        return within30Days;
+    }
+    
+    public Long getWithin60Days() {
+        return within60Days;
+    }
+    
+    public Long getWithin90Days() {
+        return within90Days;
+    }
+    
+    // Setters
+    public void setAsOf(LocalDate asOf) {
+        this.asOf = asOf;
+    }
+    
+    public void setExpired(Long expired) {
+        this.expired = expired;
+    }
+    
+    public void setWithin30Days(Long within30Days) {
+        this.within30Days = within30Days;
+    }
+    
+    public void setWithin60Days(Long within60Days) {
+        this.within60Days = within60Days;
+    }
+    
+    public void setWithin90Days(Long within90Days) {
+        this.within90Days = within90Days;
+    }
+}
@@ -0,0 +1,94 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastDTO {
+    private Long medicineId;
+    private String name;
+    private Integer quantity;
+    private Integer reorderLevel;
+    private BigDecimal dailyDemand;
+    private BigDecimal demandStdDev;
+    private Integer suggestedReorderPoint;
+    private BigDecimal daysOfCover;
+    private Boolean reorderNow;
+    
+    // Getters
+    public Long getMedicineId() {
+        return medicineId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public Integer getReorderLevel() {
+        return reorderLevel;
+    }
+    
+    public BigDecimal getDailyDemand() {
+        return dailyDemand;
+    }
+    
+    public BigDecimal getDemandStdDev() {
+        return demandStdDev;
+    }
+    
+    public Integer getSuggestedReorderPoint() {
+        return suggestedReorderPoint;
+    }
+    
+    public BigDecimal getDaysOfCover() {
+        return daysOfCover;
+    }
+    
+    public Boolean getReorderNow() {
+        return reorderNow;
+    }
+    
+    // Setters
+    public void setMedicineId(Long medicineId) {
+        this.medicineId = medicineId;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+    
+    public void setReorderLevel(Integer reorderLevel) {
+        this.reorderLevel = reorderLevel;
+    }
+    
+    public void setDailyDemand(BigDecimal dailyDemand) {
+        this.dailyDemand = dailyDemand;
+    }
+    
+    public void setDemandStdDev(BigDecimal demandStdDev) {
+        this.demandStdDev = demandStdDev;
+    }
+    
+    public void setSuggestedReorderPoint(Integer suggestedReorderPoint) {
+        this.suggestedReorderPoint = suggestedReorderPoint;
+    }
+    
+    public void setDaysOfCover(BigDecimal daysOfCover) {
+        this.daysOfCover = daysOfCover;
+    }
+    
+    public void setReorderNow(Boolean reorderNow) {
+        this.reorderNow = reorderNow;
+    }
+}
@@ -0,0 +1,59 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+    private Long totalRows;
+    private Long imported;
+    private Long failed;
+    private List<ImportRowError> errors = new ArrayList<>();
+    private Boolean errorsTruncated;
+    
+    // Getters
+    public Long getTotalRows() {
+        return totalRows;
+    }
+    
+    public Long getImported() {
+        return imported;
+    }
+    
+    public Long getFailed() {
+        return failed;
+    }
+    
+    public List<ImportRowError> getErrors() {
+        return errors;
+    }
+    
+    public Boolean getErrorsTruncated() {
+        return errorsTruncated;
+    }
+    
+    // Setters
+    public void setTotalRows(Long totalRows) {
+        this.totalRows = totalRows;
+    }
+    
+    public void setImported(Long imported) {
+        this.imported = imported;
+    }
+    
+    public void setFailed(Long failed) {
+        this.failed = failed;
+    }
+    
+    public void setErrors(List<ImportRowError> errors) {
+        this.errors = errors;
+    }
+    
+    public void setErrorsTruncated(Boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+}
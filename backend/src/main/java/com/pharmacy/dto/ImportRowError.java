@@ -0,0 +1,29 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowError {
+    private Long row;
+    private String message;
+    
+    // Getters
+    public Long getRow() {
+        return row;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    // Setters
+    public void setRow(Long row) {
+        this.row = row;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,78 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveSalesSnapshot {
+    private LocalDate date;
+    private BigDecimal totalRevenue;
+    private BigDecimal totalProfit;
+    private Long unitsSold;
+    private Long transactionCount;
+    private BigDecimal revenueLastHour;
+    private LocalDateTime asOf;
+    
+    // Getters
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public BigDecimal getTotalRevenue() {
+        return totalRevenue;
+    }
+    
+    public BigDecimal getTotalProfit() {
+        return totalProfit;
+    }
+    
+    public Long getUnitsSold() {
+        return unitsSold;
+    }
+    
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+    
+    public BigDecimal getRevenueLastHour() {
+        return revenueLastHour;
+    }
+    
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+    
+    // Setters
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+    
+    public void setTotalRevenue(BigDecimal totalRevenue) {
+        this.totalRevenue = totalRevenue;
+    }
+    
+    public void setTotalProfit(BigDecimal totalProfit) {
+        this.totalProfit = totalProfit;
+    }
+    
+    public void setUnitsSold(Long unitsSold) {
+        this.unitsSold = unitsSold;
+    }
+    
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+    
+    public void setRevenueLastHour(BigDecimal revenueLastHour) {
+        this.revenueLastHour = revenueLastHour;
+    }
+    
+    public void setAsOf(LocalDateTime asOf) {
+        this.asOf = asOf;
+    }
+}
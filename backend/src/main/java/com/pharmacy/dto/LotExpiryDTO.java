@@ -0,0 +1,77 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotExpiryDTO {
+    private Long lotId;
+    private Long medicineId;
+    private String medicineName;
+    private Long purchaseId;
+    private LocalDate expiryDate;
+    private Integer remainingQuantity;
+    private LocalDateTime receivedAt;
+    
+    // Getters
+    public Long getLotId() {
+        return lotId;
+    }
+    
+    public Long getMedicineId() {
+        return medicineId;
+    }
+    
+    public String getMedicineName() {
+        return medicineName;
+    }
+    
+    public Long getPurchaseId() {
+        return purchaseId;
+    }
+    
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+    
+    public Integer getRemainingQuantity() {
+        return remainingQuantity;
+    }
+    
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+    
+    // Setters
+    public void setLotId(Long lotId) {
+        this.lotId = lotId;
+    }
+    
+    public void setMedicineId(Long medicineId) {
+        this.medicineId = medicineId;
+    }
+    
+    public void setMedicineName(String medicineName) {
+        this.medicineName = medicineName;
+    }
+    
+    public void setPurchaseId(Long purchaseId) {
+        this.purchaseId = purchaseId;
+    }
+    
+    public void setExpiryDate(LocalDate expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+    
+    public void setRemainingQuantity(Integer remainingQuantity) {
+        this.remainingQuantity = remainingQuantity;
+    }
+    
+    public void setReceivedAt(LocalDateTime receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+}
@@ -29,6 +29,12 @@ public class MedicineDTO {
     
     private String supplierName;
     
+    // Normalized to 14-digit GTIN
+    private String barcode;
+    
+    // Sent back on updates so edits made against an older row are refused
+    private Long version;
+    
     // Getters
     public Long getMedicineId() {
         return medicineId;
@@ -70,6 +76,14 @@ public class MedicineDTO {
         return supplierName;
     }
     
+    public String getBarcode() {
+        return barcode;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
     // Setters
     public void setMedicineId(Long medicineId) {
         this.medicineId = medicineId;
@@ -110,4 +124,12 @@ public class MedicineDTO {
     public void setSupplierName(String supplierName) {
         this.supplierName = supplierName;
     }
-}
\ No newline at end of file
+    
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
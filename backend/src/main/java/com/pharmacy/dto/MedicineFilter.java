@@ -0,0 +1,134 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Query parameters for GET /api/medicines/query; every criterion is optional
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicineFilter {
+    private String name;
+    private String category;
+    private Long supplierId;
+    private Integer minQuantity;
+    private Integer maxQuantity;
+    private Boolean lowStock;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate expiryFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate expiryTo;
+    private Integer expiringWithinDays;
+    private String sort;
+    private String direction;
+    private Integer page;
+    private Integer size;
+    
+    // Getters
+    public String getName() {
+        return name;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public Long getSupplierId() {
+        return supplierId;
+    }
+    
+    public Integer getMinQuantity() {
+        return minQuantity;
+    }
+    
+    public Integer getMaxQuantity() {
+        return maxQuantity;
+    }
+    
+    public Boolean getLowStock() {
+        return lowStock;
+    }
+    
+    public LocalDate getExpiryFrom() {
+        return expiryFrom;
+    }
+    
+    public LocalDate getExpiryTo() {
+        return expiryTo;
+    }
+    
+    public Integer getExpiringWithinDays() {
+        return expiringWithinDays;
+    }
+    
+    public String getSort() {
+        return sort;
+    }
+    
+    public String getDirection() {
+        return direction;
+    }
+    
+    public Integer getPage() {
+        return page;
+    }
+    
+    public Integer getSize() {
+        return size;
+    }
+    
+    // Setters
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public void setSupplierId(Long supplierId) {
+        this.supplierId = supplierId;
+    }
+    
+    public void setMinQuantity(Integer minQuantity) {
+        this.minQuantity = minQuantity;
+    }
+    
+    public void setMaxQuantity(Integer maxQuantity) {
+        this.maxQuantity = maxQuantity;
+    }
+    
+    public void setLowStock(Boolean lowStock) {
+        this.lowStock = lowStock;
+    }
+    
+    public void setExpiryFrom(LocalDate expiryFrom) {
+        this.expiryFrom = expiryFrom;
+    }
+    
+    public void setExpiryTo(LocalDate expiryTo) {
+        this.expiryTo = expiryTo;
+    }
+    
+    public void setExpiringWithinDays(Integer expiringWithinDays) {
+        this.expiringWithinDays = expiringWithinDays;
+    }
+    
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+    
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+    
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+    
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+}
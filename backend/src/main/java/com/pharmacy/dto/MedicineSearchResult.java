@@ -0,0 +1,58 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicineSearchResult {
+    private Long medicineId;
+    private String name;
+    private String category;
+    private BigDecimal sellingPrice;
+    private Double score;
+    
+    // Getters
+    public Long getMedicineId() {
+        return medicineId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public BigDecimal getSellingPrice() {
+        return sellingPrice;
+    }
+    
+    public Double getScore() {
+        return score;
+    }
+    
+    // Setters
+    public void setMedicineId(Long medicineId) {
+        this.medicineId = medicineId;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public void setSellingPrice(BigDecimal sellingPrice) {
+        this.sellingPrice = sellingPrice;
+    }
+    
+    public void setScore(Double score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,59 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class PagedResult<T> {
+    private List<T> items = new ArrayList<>();
+    private Integer page;
+    private Integer size;
+    private Long totalElements;
+    private Integer totalPages;
+    
+    // Getters
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public Integer getPage() {
+        return page;
+    }
+    
+    public Integer getSize() {
+        return size;
+    }
+    
+    public Long getTotalElements() {
+        return totalElements;
+    }
+    
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+    
+    // Setters
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+    
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+    
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+    
+    public void setTotalPages(Integer totalPages) {
+        this.totalPages = totalPages;
+    }
+}
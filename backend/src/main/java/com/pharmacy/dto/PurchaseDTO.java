@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @NoArgsConstructor
@@ -24,6 +25,9 @@ public class PurchaseDTO {
     private String medicineName;
     private String supplierName;
     
+    // Expiry of the received lot; defaults to the medicine's expiry date
+    private LocalDate expiryDate;
+    
     // Getters
     public Long getPurchaseId() {
         return purchaseId;
@@ -57,6 +61,10 @@ public class PurchaseDTO {
         return supplierName;
     }
     
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+    
     // Setters
     public void setPurchaseId(Long purchaseId) {
         this.purchaseId = purchaseId;
@@ -89,4 +97,8 @@ public class PurchaseDTO {
     public void setSupplierName(String supplierName) {
         this.supplierName = supplierName;
     }
+    
+    public void setExpiryDate(LocalDate expiryDate) {
+        this.expiryDate = expiryDate;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDTO {
+    private String jobId;
+    private String type;
+    private String priority;
+    private String status;
+    private Long revision;
+    private Boolean cached;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+    
+    // Getters
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public String getPriority() {
+        return priority;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public Long getRevision() {
+        return revision;
+    }
+    
+    public Boolean getCached() {
+        return cached;
+    }
+    
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    // Setters
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+    
+    public void setCached(Boolean cached) {
+        this.cached = cached;
+    }
+    
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
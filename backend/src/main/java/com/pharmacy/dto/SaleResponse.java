@@ -1,5 +1,6 @@
 package com.pharmacy.dto;
 
+import com.pharmacy.model.Sale;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
@@ -16,6 +17,8 @@ public class SaleResponse {
     private BigDecimal profit;
     private LocalDateTime saleDate;
     private String userName;
+    private Long reversalOfSaleId;
+    private Sale.ReversalType reversalType;
     
     // Getters
     public Long getSaleId() {
@@ -46,6 +49,14 @@ public class SaleResponse {
         return userName;
     }
     
+    public Long getReversalOfSaleId() {
+        return reversalOfSaleId;
+    }
+    
+    public Sale.ReversalType getReversalType() {
+        return reversalType;
+    }
+    
     // Setters
     public void setSaleId(Long saleId) {
         this.saleId = saleId;
@@ -74,4 +85,12 @@ public class SaleResponse {
     public void setUserName(String userName) {
         this.userName = userName;
     }
+    
+    public void setReversalOfSaleId(Long reversalOfSaleId) {
+        this.reversalOfSaleId = reversalOfSaleId;
+    }
+    
+    public void setReversalType(Sale.ReversalType reversalType) {
+        this.reversalType = reversalType;
+    }
 }
\ No newline at end of file
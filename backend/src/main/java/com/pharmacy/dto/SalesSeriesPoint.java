@@ -0,0 +1,59 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesSeriesPoint {
+    private LocalDateTime bucketStart;
+    private BigDecimal revenue;
+    private BigDecimal profit;
+    private Long units;
+    private Long transactions;
+    
+    // Getters
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public BigDecimal getProfit() {
+        return profit;
+    }
+    
+    public Long getUnits() {
+        return units;
+    }
+    
+    public Long getTransactions() {
+        return transactions;
+    }
+    
+    // Setters
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+    
+    public void setProfit(BigDecimal profit) {
+        this.profit = profit;
+    }
+    
+    public void setUnits(Long units) {
+        this.units = units;
+    }
+    
+    public void setTransactions(Long transactions) {
+        this.transactions = transactions;
+    }
+}
@@ -0,0 +1,60 @@
+package com.pharmacy.dto;
+
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@NoArgsConstructor
+public class SalesTotals {
+    private BigDecimal revenue = BigDecimal.ZERO;
+    private BigDecimal profit = BigDecimal.ZERO;
+    private Long units = 0L;
+    private Long transactions = 0L;
+    
+    // Aggregate queries return nulls for empty ranges
+    public SalesTotals(BigDecimal revenue, BigDecimal profit, Long units, Long transactions) {
+        this.revenue = revenue != null ? revenue : BigDecimal.ZERO;
+        this.profit = profit != null ? profit : BigDecimal.ZERO;
+        this.units = units != null ? units : 0L;
+        this.transactions = transactions != null ? transactions : 0L;
+    }
+    
+    public SalesTotals add(SalesTotals other) {
+        return new SalesTotals(revenue.add(other.revenue), profit.add(other.profit),
+                units + other.units, transactions + other.transactions);
+    }
+    
+    // Getters
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public BigDecimal getProfit() {
+        return profit;
+    }
+    
+    public Long getUnits() {
+        return units;
+    }
+    
+    public Long getTransactions() {
+        return transactions;
+    }
+    
+    // Setters
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+    
+    public void setProfit(BigDecimal profit) {
+        this.profit = profit;
+    }
+    
+    public void setUnits(Long units) {
+        this.units = units;
+    }
+    
+    public void setTransactions(Long transactions) {
+        this.transactions = transactions;
+    }
+}
@@ -0,0 +1,68 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReportPage {
+    private List<StockReportDTO> items;
+    private Integer page;
+    private Integer size;
+    private Long totalElements;
+    private Integer totalPages;
+    private Map<String, Long> statusCounts;
+    
+    // Getters
+    public List<StockReportDTO> getItems() {
+        return items;
+    }
+    
+    public Integer getPage() {
+        return page;
+    }
+    
+    public Integer getSize() {
+        return size;
+    }
+    
+    public Long getTotalElements() {
+        return totalElements;
+    }
+    
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+    
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts;
+    }
+    
+    // Setters
+    public void setItems(List<StockReportDTO> items) {
+        this.items = items;
+    }
+    
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+    
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+    
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+    
+    public void setTotalPages(Integer totalPages) {
+        this.totalPages = totalPages;
+    }
+    
+    public void setStatusCounts(Map<String, Long> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+}
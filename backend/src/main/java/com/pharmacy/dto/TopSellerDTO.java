@@ -0,0 +1,85 @@
+package com.pharmacy.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopSellerDTO {
+    private Integer rank;
+    private Long medicineId;
+    private String name;
+    private String category;
+    private Long unitsSold;
+    private BigDecimal revenue;
+    private BigDecimal profit;
+    private Long transactions;
+    
+    // Getters
+    public Integer getRank() {
+        return rank;
+    }
+    
+    public Long getMedicineId() {
+        return medicineId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public Long getUnitsSold() {
+        return unitsSold;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public BigDecimal getProfit() {
+        return profit;
+    }
+    
+    public Long getTransactions() {
+        return transactions;
+    }
+    
+    // Setters
+    public void setRank(Integer rank) {
+        this.rank = rank;
+    }
+    
+    public void setMedicineId(Long medicineId) {
+        this.medicineId = medicineId;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public void setUnitsSold(Long unitsSold) {
+        this.unitsSold = unitsSold;
+    }
+    
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+    
+    public void setProfit(BigDecimal profit) {
+        this.profit = profit;
+    }
+    
+    public void setTransactions(Long transactions) {
+        this.transactions = transactions;
+    }
+}
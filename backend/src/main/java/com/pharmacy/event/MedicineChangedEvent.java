@@ -0,0 +1,41 @@
+package com.pharmacy.event;
+
+/**
+ * Published after a medicine's catalog data or stock changes. A null id means
+ * any number of medicines may have changed (e.g. a supplier rename).
+ */
+public class MedicineChangedEvent {
+    
+    private final Long medicineId;
+    private final boolean stockOnly;
+    
+    public MedicineChangedEvent(Long medicineId) {
+        this(medicineId, false);
+    }
+    
+    private MedicineChangedEvent(Long medicineId, boolean stockOnly) {
+        this.medicineId = medicineId;
+        this.stockOnly = stockOnly;
+    }
+    
+    public static MedicineChangedEvent all() {
+        return new MedicineChangedEvent(null);
+    }
+    
+    // Only the quantity moved (sales, purchases, stock adjustments)
+    public static MedicineChangedEvent stock(Long medicineId) {
+        return new MedicineChangedEvent(medicineId, true);
+    }
+    
+    public Long getMedicineId() {
+        return medicineId;
+    }
+    
+    public boolean isStockOnly() {
+        return stockOnly;
+    }
+    
+    public boolean isAll() {
+        return medicineId == null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.pharmacy.exception;
+
+// A write based on a stale version; carries the record as it is now so the client can redo the edit
+public class ConflictException extends RuntimeException {
+    
+    private final Object current;
+    
+    public ConflictException(String message, Object current) {
+        super(message);
+        this.current = current;
+    }
+    
+    public Object getCurrent() {
+        return current;
+    }
+}
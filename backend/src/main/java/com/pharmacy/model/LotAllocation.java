@@ -0,0 +1,92 @@
+package com.pharmacy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.Objects;
+
+// Which lots a sale was dispensed from, so a return can put stock back into the same lots
+@Entity
+@Table(name = "lot_allocations", indexes = {
+        @Index(name = "idx_lot_allocations_sale", columnList = "sale_id"),
+        @Index(name = "idx_lot_allocations_lot", columnList = "lot_id")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class LotAllocation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lot_allocation_seq")
+    @SequenceGenerator(name = "lot_allocation_seq", sequenceName = "lot_allocations_seq", allocationSize = 50)
+    @Column(name = "allocation_id")
+    private Long allocationId;
+    
+    @Column(name = "sale_id", nullable = false)
+    private Long saleId;
+    
+    @Column(name = "lot_id", nullable = false)
+    private Long lotId;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    // Getters
+    public Long getAllocationId() {
+        return allocationId;
+    }
+    
+    public Long getSaleId() {
+        return saleId;
+    }
+    
+    public Long getLotId() {
+        return lotId;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    // Setters
+    public void setAllocationId(Long allocationId) {
+        this.allocationId = allocationId;
+    }
+    
+    public void setSaleId(Long saleId) {
+        this.saleId = saleId;
+    }
+    
+    public void setLotId(Long lotId) {
+        this.lotId = lotId;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+    
+    // equals and hashCode based on ID
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LotAllocation lotAllocation = (LotAllocation) o;
+        return Objects.equals(allocationId, lotAllocation.allocationId);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(allocationId);
+    }
+    
+    // toString
+    @Override
+    public String toString() {
+        return "LotAllocation{" +
+                "allocationId=" + allocationId +
+                ", saleId=" + saleId +
+                ", lotId=" + lotId +
+                ", quantity=" + quantity +
+                '}';
+    }
+}
@@ -9,10 +9,20 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 @Entity
-@Table(name = "medicines")
+@Table(name = "medicines", indexes = {
+        @Index(name = "idx_medicines_name", columnList = "name"),
+        @Index(name = "idx_medicines_name_key", columnList = "name_key"),
+        @Index(name = "idx_medicines_category", columnList = "category"),
+        @Index(name = "idx_medicines_expiry_date", columnList = "expiry_date"),
+        @Index(name = "idx_medicines_supplier_id", columnList = "supplier_id"),
+        @Index(name = "idx_medicines_low_stock", columnList = "low_stock, medicine_id"),
+        @Index(name = "idx_medicines_revision", columnList = "revision"),
+        @Index(name = "idx_medicines_barcode", columnList = "barcode", unique = true)
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Medicine {
@@ -22,10 +32,15 @@ public class Medicine {
     @Column(name = "medicine_id")
     private Long medicineId;
     
-    @Column(nullable = false)
+    @Column(name = "name", nullable = false)
     private String name;
     
-    @Column(nullable = false)
+    // Lower-cased name, so case-insensitive prefix filters are a range on idx_medicines_name_key.
+    // Kept in step by the entity callbacks below and by MedicineImportService's batch insert.
+    @Column(name = "name_key", nullable = false)
+    private String nameKey;
+    
+    @Column(name = "category", nullable = false)
     private String category;
     
     @Column(nullable = false, precision = 10, scale = 2)
@@ -37,12 +52,30 @@ public class Medicine {
     @Column(nullable = false)
     private Integer quantity;
     
-    @Column(nullable = false)
+    @Column(name = "expiry_date", nullable = false)
     private LocalDate expiryDate;
     
     @Column(nullable = false)
     private Integer reorderLevel;
     
+    // 14-digit GTIN, optional
+    @Column(name = "barcode", length = 14)
+    private String barcode;
+    
+    // quantity <= reorderLevel, stored so low-stock lookups can use an index. Kept in step by
+    // the entity callbacks below and by the stock update queries in MedicineRepository.
+    @Column(name = "low_stock", nullable = false)
+    private Boolean lowStock = false;
+    
+    // Catalog revision of the last write to this row, see CatalogRevisionService
+    @Column(name = "revision", nullable = false)
+    private Long revision = 0L;
+    
+    // Optimistic lock; the stock update queries in MedicineRepository bump it as well
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "supplier_id", nullable = false)
     private Supplier supplier;
@@ -64,6 +97,10 @@ public class Medicine {
         return name;
     }
     
+    public String getNameKey() {
+        return nameKey;
+    }
+    
     public String getCategory() {
         return category;
     }
@@ -88,6 +125,22 @@ public class Medicine {
         return reorderLevel;
     }
     
+    public String getBarcode() {
+        return barcode;
+    }
+    
+    public Boolean getLowStock() {
+        return lowStock;
+    }
+    
+    public Long getRevision() {
+        return revision;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
     public Supplier getSupplier() {
         return supplier;
     }
@@ -133,6 +186,25 @@ public class Medicine {
         this.reorderLevel = reorderLevel;
     }
     
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+    
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+    
+    public static String nameKey(String name) {
+        return name != null ? name.toLowerCase(Locale.ROOT) : null;
+    }
+    
+    @PrePersist
+    @PreUpdate
+    private void refreshDerivedColumns() {
+        this.nameKey = nameKey(name);
+        this.lowStock = quantity != null && reorderLevel != null && quantity <= reorderLevel;
+    }
+    
     public void setSupplier(Supplier supplier) {
         this.supplier = supplier;
     }
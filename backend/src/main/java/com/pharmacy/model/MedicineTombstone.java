@@ -0,0 +1,78 @@
+package com.pharmacy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Marks a deleted medicine so catalog delta syncs can tell clients to drop it
+@Entity
+@Table(name = "medicine_tombstones", indexes = {
+        @Index(name = "idx_medicine_tombstones_revision", columnList = "revision")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class MedicineTombstone {
+    
+    @Id
+    @Column(name = "medicine_id")
+    private Long medicineId;
+    
+    @Column(name = "revision", nullable = false)
+    private Long revision;
+    
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+    
+    // Getters
+    public Long getMedicineId() {
+        return medicineId;
+    }
+    
+    public Long getRevision() {
+        return revision;
+    }
+    
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+    
+    // Setters
+    public void setMedicineId(Long medicineId) {
+        this.medicineId = medicineId;
+    }
+    
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+    
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+    
+    // equals and hashCode based on ID
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MedicineTombstone medicineTombstone = (MedicineTombstone) o;
+        return Objects.equals(medicineId, medicineTombstone.medicineId);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(medicineId);
+    }
+    
+    // toString
+    @Override
+    public String toString() {
+        return "MedicineTombstone{" +
+                "medicineId=" + medicineId +
+                ", revision=" + revision +
+                ", deletedAt=" + deletedAt +
+                '}';
+    }
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
@@ -36,6 +37,10 @@ public class Purchase {
     @Column(nullable = false)
     private LocalDateTime purchaseDate;
     
+    // Expiry of the stock lot this purchase received
+    @Column(name = "expiry_date")
+    private LocalDate expiryDate;
+    
     // Getters
     public Long getPurchaseId() {
         return purchaseId;
@@ -61,6 +66,10 @@ public class Purchase {
         return purchaseDate;
     }
     
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+    
     // Setters
     public void setPurchaseId(Long purchaseId) {
         this.purchaseId = purchaseId;
@@ -86,6 +95,10 @@ public class Purchase {
         this.purchaseDate = purchaseDate;
     }
     
+    public void setExpiryDate(LocalDate expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+    
     // equals and hashCode based on ID
     @Override
     public boolean equals(Object o) {
@@ -110,6 +123,7 @@ public class Purchase {
                 ", quantity=" + quantity +
                 ", totalCost=" + totalCost +
                 ", purchaseDate=" + purchaseDate +
+                ", expiryDate=" + expiryDate +
                 '}';
     }
 }
\ No newline at end of file
@@ -9,13 +9,14 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "sales")
+@Table(name = "sales", indexes = @Index(name = "idx_sales_sale_date", columnList = "sale_date"))
 @NoArgsConstructor
 @AllArgsConstructor
 public class Sale {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sale_seq")
+    @SequenceGenerator(name = "sale_seq", sequenceName = "sales_seq", allocationSize = 50)
     @Column(name = "sale_id")
     private Long saleId;
     
@@ -36,9 +37,21 @@ public class Sale {
     @Column(precision = 10, scale = 2)
     private BigDecimal profit;
     
-    @Column(nullable = false)
+    @Column(name = "sale_date", nullable = false)
     private LocalDateTime saleDate;
     
+    // Set on compensating rows only; unique so a sale can be reversed at most once
+    @Column(name = "reversal_of_sale_id", unique = true)
+    private Long reversalOfSaleId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reversal_type", length = 10)
+    private ReversalType reversalType;
+    
+    public enum ReversalType {
+        RETURN, VOID
+    }
+    
     // Getters
     public Long getSaleId() {
         return saleId;
@@ -68,6 +81,14 @@ public class Sale {
         return saleDate;
     }
     
+    public Long getReversalOfSaleId() {
+        return reversalOfSaleId;
+    }
+    
+    public ReversalType getReversalType() {
+        return reversalType;
+    }
+    
     // Setters
     public void setSaleId(Long saleId) {
         this.saleId = saleId;
@@ -97,6 +118,14 @@ public class Sale {
         this.saleDate = saleDate;
     }
     
+    public void setReversalOfSaleId(Long reversalOfSaleId) {
+        this.reversalOfSaleId = reversalOfSaleId;
+    }
+    
+    public void setReversalType(ReversalType reversalType) {
+        this.reversalType = reversalType;
+    }
+    
     // equals and hashCode based on ID
     @Override
     public boolean equals(Object o) {
@@ -122,6 +151,8 @@ public class Sale {
                 ", totalAmount=" + totalAmount +
                 ", profit=" + profit +
                 ", saleDate=" + saleDate +
+                ", reversalOfSaleId=" + reversalOfSaleId +
+                ", reversalType=" + reversalType +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.pharmacy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(name = "sales_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sales_rollups_bucket",
+                columnNames = {"granularity", "bucket_start", "medicine_id"}),
+        indexes = @Index(name = "idx_sales_rollups_range", columnList = "granularity, bucket_start"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private Granularity granularity;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(name = "medicine_id", nullable = false)
+    private Long medicineId;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal profit;
+    
+    @Column(nullable = false)
+    private Long units;
+    
+    @Column(nullable = false)
+    private Long transactions;
+    
+    public enum Granularity {
+        HOURLY, DAILY
+    }
+    
+    // Getters
+    public Long getRollupId() {
+        return rollupId;
+    }
+    
+    public Granularity getGranularity() {
+        return granularity;
+    }
+    
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public Long getMedicineId() {
+        return medicineId;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public BigDecimal getProfit() {
+        return profit;
+    }
+    
+    public Long getUnits() {
+        return units;
+    }
+    
+    public Long getTransactions() {
+        return transactions;
+    }
+    
+    // Setters
+    public void setRollupId(Long rollupId) {
+        this.rollupId = rollupId;
+    }
+    
+    public void setGranularity(Granularity granularity) {
+        this.granularity = granularity;
+    }
+    
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public void setMedicineId(Long medicineId) {
+        this.medicineId = medicineId;
+    }
+    
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+    
+    public void setProfit(BigDecimal profit) {
+        this.profit = profit;
+    }
+    
+    public void setUnits(Long units) {
+        this.units = units;
+    }
+    
+    public void setTransactions(Long transactions) {
+        this.transactions = transactions;
+    }
+    
+    // equals and hashCode based on ID
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SalesRollup rollup = (SalesRollup) o;
+        return Objects.equals(rollupId, rollup.rollupId);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(rollupId);
+    }
+    
+    // toString
+    @Override
+    public String toString() {
+        return "SalesRollup{" +
+                "rollupId=" + rollupId +
+                ", granularity=" + granularity +
+                ", bucketStart=" + bucketStart +
+                ", medicineId=" + medicineId +
+                ", revenue=" + revenue +
+                ", profit=" + profit +
+                ", units=" + units +
+                ", transactions=" + transactions +
+                '}';
+    }
+}
@@ -0,0 +1,130 @@
+package com.pharmacy.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(name = "stock_lots", indexes = {
+        @Index(name = "idx_stock_lots_medicine_expiry", columnList = "medicine_id, expiry_date"),
+        @Index(name = "idx_stock_lots_expiry_date", columnList = "expiry_date")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_lot_seq")
+    @SequenceGenerator(name = "stock_lot_seq", sequenceName = "stock_lots_seq", allocationSize = 50)
+    @Column(name = "lot_id")
+    private Long lotId;
+    
+    @Column(name = "medicine_id", nullable = false)
+    private Long medicineId;
+    
+    // Null for opening stock that was on hand before lots were tracked
+    @Column(name = "purchase_id")
+    private Long purchaseId;
+    
+    @Column(name = "expiry_date", nullable = false)
+    private LocalDate expiryDate;
+    
+    @Column(nullable = false)
+    private Integer receivedQuantity;
+    
+    @Column(nullable = false)
+    private Integer remainingQuantity;
+    
+    @Column(nullable = false)
+    private LocalDateTime receivedAt;
+    
+    // Getters
+    public Long getLotId() {
+        return lotId;
+    }
+    
+    public Long getMedicineId() {
+        return medicineId;
+    }
+    
+    public Long getPurchaseId() {
+        return purchaseId;
+    }
+    
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+    
+    public Integer getReceivedQuantity() {
+        return receivedQuantity;
+    }
+    
+    public Integer getRemainingQuantity() {
+        return remainingQuantity;
+    }
+    
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+    
+    // Setters
+    public void setLotId(Long lotId) {
+        this.lotId = lotId;
+    }
+    
+    public void setMedicineId(Long medicineId) {
+        this.medicineId = medicineId;
+    }
+    
+    public void setPurchaseId(Long purchaseId) {
+        this.purchaseId = purchaseId;
+    }
+    
+    public void setExpiryDate(LocalDate expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+    
+    public void setReceivedQuantity(Integer receivedQuantity) {
+        this.receivedQuantity = receivedQuantity;
+    }
+    
+    public void setRemainingQuantity(Integer remainingQuantity) {
+        this.remainingQuantity = remainingQuantity;
+    }
+    
+    public void setReceivedAt(LocalDateTime receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+    
+    // equals and hashCode based on ID
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StockLot stockLot = (StockLot) o;
+        return Objects.equals(lotId, stockLot.lotId);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(lotId);
+    }
+    
+    // toString
+    @Override
+    public String toString() {
+        return "StockLot{" +
+                "lotId=" + lotId +
+                ", medicineId=" + medicineId +
+                ", purchaseId=" + purchaseId +
+                ", expiryDate=" + expiryDate +
+                ", receivedQuantity=" + receivedQuantity +
+                ", remainingQuantity=" + remainingQuantity +
+                ", receivedAt=" + receivedAt +
+                '}';
+    }
+}
@@ -29,6 +29,10 @@ public class Supplier {
     @Column(nullable = true)
     private String email;
     
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @OneToMany(mappedBy = "supplier", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Medicine> medicines = new ArrayList<>();
@@ -42,6 +46,10 @@ public class Supplier {
         return supplierId;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     public String getName() {
         return name;
     }
@@ -67,6 +75,10 @@ public class Supplier {
         this.supplierId = supplierId;
     }
     
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public void setName(String name) {
         this.name = name;
     }
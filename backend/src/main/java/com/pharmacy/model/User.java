@@ -32,6 +32,10 @@ public class User {
     @Column(nullable = false)
     private UserRole role;
     
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Sale> sales = new ArrayList<>();
@@ -45,6 +49,10 @@ public class User {
         return userId;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     public String getName() {
         return name;
     }
@@ -70,6 +78,10 @@ public class User {
         this.userId = userId;
     }
     
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public void setName(String name) {
         this.name = name;
     }
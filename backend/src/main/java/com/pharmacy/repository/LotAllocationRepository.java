@@ -0,0 +1,20 @@
+package com.pharmacy.repository;
+
+import com.pharmacy.model.LotAllocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LotAllocationRepository extends JpaRepository<LotAllocation, Long> {
+    
+    List<LotAllocation> findBySaleId(Long saleId);
+    
+    @Modifying
+    @Query("DELETE FROM LotAllocation a WHERE a.lotId IN (SELECT l.lotId FROM StockLot l WHERE l.medicineId = :medicineId)")
+    int deleteByMedicineId(@Param("medicineId") Long medicineId);
+}
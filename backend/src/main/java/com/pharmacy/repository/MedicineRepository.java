@@ -1,21 +1,110 @@
 package com.pharmacy.repository;
 
+import com.pharmacy.dto.MedicineDTO;
+import com.pharmacy.dto.StockReportDTO;
 import com.pharmacy.model.Medicine;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MedicineRepository extends JpaRepository<Medicine, Long> {
-    List<Medicine> findByExpiryDateBefore(LocalDate date);
     
-    @Query("SELECT m FROM Medicine m WHERE m.quantity <= m.reorderLevel")
+    String MEDICINE_DTO = "SELECT new com.pharmacy.dto.MedicineDTO(m.medicineId, m.name, m.category, m.costPrice, m.sellingPrice, " +
+                          "m.quantity, m.expiryDate, m.reorderLevel, sup.supplierId, sup.name, m.barcode, m.version) " +
+                          "FROM Medicine m JOIN m.supplier sup ";
+    
+    // Same status rule as StockReportService: out of stock first, then the stored low-stock flag
+    @Query("SELECT new com.pharmacy.dto.StockReportDTO(m.medicineId, m.name, m.category, m.quantity, m.reorderLevel, " +
+           "m.costPrice, m.sellingPrice, " +
+           "CASE WHEN m.quantity = 0 THEN 'OUT_OF_STOCK' WHEN m.lowStock = true THEN 'LOW' ELSE 'NORMAL' END) " +
+           "FROM Medicine m ORDER BY m.name, m.medicineId")
+    List<StockReportDTO> findStockReport();
+    
+    @Query(MEDICINE_DTO + "ORDER BY m.medicineId")
+    List<MedicineDTO> findAllDTOs();
+    
+    @Query(MEDICINE_DTO + "WHERE m.medicineId = :id")
+    Optional<MedicineDTO> findDTOById(@Param("id") Long id);
+    
+    @Query(MEDICINE_DTO + "WHERE m.medicineId > :cursor ORDER BY m.medicineId")
+    List<MedicineDTO> findDTOsAfter(@Param("cursor") Long cursor, Pageable pageable);
+    
+    @Query(MEDICINE_DTO + "WHERE m.medicineId IN :ids")
+    List<MedicineDTO> findDTOsByIds(@Param("ids") Collection<Long> ids);
+    
+    // Ids and revisions of rows written in (since, upTo], oldest revision first
+    @Query("SELECT m.medicineId, m.revision FROM Medicine m WHERE m.revision > :since AND m.revision <= :upTo ORDER BY m.revision")
+    List<Object[]> findRevisionsBetween(@Param("since") long since, @Param("upTo") long upTo, Pageable pageable);
+    
+    @Query("SELECT m.medicineId FROM Medicine m WHERE m.supplier.supplierId = :supplierId")
+    List<Long> findIdsBySupplierId(@Param("supplierId") Long supplierId);
+    
+    @Modifying
+    @Query("UPDATE Medicine m SET m.revision = :revision WHERE m.medicineId = :id")
+    int updateRevision(@Param("id") Long id, @Param("revision") long revision);
+    
+    @Query("SELECT COALESCE(MAX(m.revision), 0) FROM Medicine m")
+    long findMaxRevision();
+    
+    @Query("SELECT m FROM Medicine m WHERE m.lowStock = true")
     List<Medicine> findLowStockMedicines();
     
-    @Query("SELECT m FROM Medicine m WHERE m.expiryDate <= :date")
-    List<Medicine> findMedicinesExpiringBefore(@Param("date") LocalDate date);
+    @Query(MEDICINE_DTO + "WHERE m.lowStock = true AND m.medicineId > :cursor ORDER BY m.medicineId")
+    List<MedicineDTO> findLowStockDTOsAfter(@Param("cursor") Long cursor, Pageable pageable);
+    
+    long countByLowStockTrue();
+    
+    @Query("SELECT m.medicineId, m.name, m.category FROM Medicine m")
+    List<Object[]> findAllSummaries();
+    
+    @Query("SELECT m.medicineId, m.name, m.category FROM Medicine m WHERE m.medicineId IN :ids")
+    List<Object[]> findSummariesByIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT m.medicineId, m.name, m.category, m.sellingPrice FROM Medicine m")
+    List<Object[]> findSearchRows();
+    
+    @Query("SELECT m.medicineId, m.name, m.category, m.sellingPrice FROM Medicine m WHERE m.medicineId = :id")
+    List<Object[]> findSearchRowById(@Param("id") Long id);
+    
+    @Query("SELECT m.barcode, m.medicineId FROM Medicine m WHERE m.barcode IS NOT NULL")
+    List<Object[]> findBarcodes();
+    
+    @Query("SELECT m.barcode FROM Medicine m WHERE m.medicineId = :id")
+    Optional<String> findBarcodeById(@Param("id") Long id);
+    
+    @Query("SELECT m.medicineId, m.quantity, m.expiryDate FROM Medicine m WHERE m.quantity > 0")
+    List<Object[]> findStockOnHand();
+    
+    @Query("SELECT m.medicineId, m.name, m.quantity, m.reorderLevel FROM Medicine m")
+    List<Object[]> findStockSummaries();
+    
+    @Query("SELECT m.quantity FROM Medicine m WHERE m.medicineId = :id")
+    Integer findQuantityById(@Param("id") Long id);
+    
+    @Query("SELECT m.expiryDate FROM Medicine m WHERE m.medicineId = :id")
+    LocalDate findExpiryDateById(@Param("id") Long id);
+    
+    // Conditional decrement: returns 0 when the row is missing or stock is insufficient
+    @Modifying
+    @Query("UPDATE Medicine m SET m.quantity = m.quantity - :quantity, " +
+           "m.lowStock = CASE WHEN m.quantity - :quantity <= m.reorderLevel THEN true ELSE false END, " +
+           "m.revision = :revision, m.version = m.version + 1 " +
+           "WHERE m.medicineId = :id AND m.quantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("revision") long revision);
+    
+    @Modifying
+    @Query("UPDATE Medicine m SET m.quantity = m.quantity + :quantity, " +
+           "m.lowStock = CASE WHEN m.quantity + :quantity <= m.reorderLevel THEN true ELSE false END, " +
+           "m.revision = :revision, m.version = m.version + 1 " +
+           "WHERE m.medicineId = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("revision") long revision);
 }
@@ -0,0 +1,20 @@
+package com.pharmacy.repository;
+
+import com.pharmacy.model.MedicineTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MedicineTombstoneRepository extends JpaRepository<MedicineTombstone, Long> {
+    
+    @Query("SELECT t.medicineId, t.revision FROM MedicineTombstone t WHERE t.revision > :since AND t.revision <= :upTo ORDER BY t.revision")
+    List<Object[]> findRevisionsBetween(@Param("since") long since, @Param("upTo") long upTo, Pageable pageable);
+    
+    @Query("SELECT COALESCE(MAX(t.revision), 0) FROM MedicineTombstone t")
+    long findMaxRevision();
+}
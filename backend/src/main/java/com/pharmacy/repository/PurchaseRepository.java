@@ -1,17 +1,36 @@
 package com.pharmacy.repository;
 
+import com.pharmacy.dto.PurchaseDTO;
 import com.pharmacy.model.Purchase;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
     
-    @Query("SELECT p FROM Purchase p WHERE p.purchaseDate >= :startDate AND p.purchaseDate <= :endDate")
-    List<Purchase> findByPurchaseDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    String PURCHASE_DTO = "SELECT new com.pharmacy.dto.PurchaseDTO(p.purchaseId, m.medicineId, sup.supplierId, p.quantity, p.totalCost, p.purchaseDate, m.name, sup.name, " +
+                          "p.expiryDate) FROM Purchase p JOIN p.medicine m JOIN p.supplier sup ";
+    
+    @Query(PURCHASE_DTO + "ORDER BY p.purchaseId")
+    List<PurchaseDTO> findAllDTOs();
+    
+    @Query(PURCHASE_DTO + "WHERE p.purchaseId < :cursor ORDER BY p.purchaseId DESC")
+    List<PurchaseDTO> findDTOsBefore(@Param("cursor") Long cursor, Pageable pageable);
+    
+    @Query(PURCHASE_DTO + "WHERE p.purchaseDate >= :startDate AND p.purchaseDate <= :endDate ORDER BY p.purchaseDate, p.purchaseId")
+    List<PurchaseDTO> findDTOsByPurchaseDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PURCHASE_DTO + "WHERE p.purchaseDate >= :startDate AND p.purchaseDate <= :endDate ORDER BY p.purchaseDate, p.purchaseId")
+    Stream<PurchaseDTO> streamByPurchaseDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 }
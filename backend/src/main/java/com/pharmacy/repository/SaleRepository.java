@@ -1,26 +1,78 @@
 package com.pharmacy.repository;
 
+import com.pharmacy.dto.SaleResponse;
+import com.pharmacy.dto.SalesTotals;
 import com.pharmacy.model.Sale;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SaleRepository extends JpaRepository<Sale, Long> {
     
-    @Query("SELECT s FROM Sale s WHERE s.saleDate >= :startDate AND s.saleDate <= :endDate")
-    List<Sale> findBySaleDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    // One joined select per listing; no entities are loaded
+    String SALE_RESPONSE = "SELECT new com.pharmacy.dto.SaleResponse(s.saleId, m.name, s.quantity, s.totalAmount, s.profit, s.saleDate, u.name, " +
+                           "s.reversalOfSaleId, s.reversalType) FROM Sale s JOIN s.medicine m JOIN s.user u ";
     
-    @Query("SELECT COUNT(s) FROM Sale s WHERE s.saleDate >= :startDate AND s.saleDate <= :endDate")
-    Long countBySaleDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    // Reversals carry negative amounts and cancel out the transaction they reverse
+    String NET_TRANSACTIONS = "SUM(CASE WHEN s.reversalOfSaleId IS NULL THEN 1 ELSE -1 END)";
     
-    @Query("SELECT SUM(s.totalAmount) FROM Sale s WHERE s.saleDate >= :startDate AND s.saleDate <= :endDate")
-    Double sumTotalAmountByDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    @Query(SALE_RESPONSE + "ORDER BY s.saleId")
+    List<SaleResponse> findAllResponses();
     
-    @Query("SELECT SUM(s.profit) FROM Sale s WHERE s.saleDate >= :startDate AND s.saleDate <= :endDate")
-    Double sumProfitByDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    @Query(SALE_RESPONSE + "WHERE s.saleId < :cursor ORDER BY s.saleId DESC")
+    List<SaleResponse> findResponsesBefore(@Param("cursor") Long cursor, Pageable pageable);
+    
+    @Query(SALE_RESPONSE + "WHERE s.saleDate >= :startDate AND s.saleDate <= :endDate ORDER BY s.saleDate, s.saleId")
+    List<SaleResponse> findResponsesBySaleDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    // Half-open range [from, to), used for the partial-hour edges of rollup summaries
+    @Query("SELECT new com.pharmacy.dto.SalesTotals(SUM(s.totalAmount), SUM(s.profit), SUM(s.quantity), " + NET_TRANSACTIONS + ") " +
+           "FROM Sale s WHERE s.saleDate >= :from AND s.saleDate < :to")
+    SalesTotals sumTotalsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT s.medicine.medicineId, SUM(s.totalAmount), SUM(s.profit), SUM(s.quantity), " + NET_TRANSACTIONS + " " +
+           "FROM Sale s WHERE s.saleDate >= :from AND s.saleDate < :to GROUP BY s.medicine.medicineId")
+    List<Object[]> sumByMedicineBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT year(s.saleDate), month(s.saleDate), day(s.saleDate), hour(s.saleDate), " +
+           "SUM(s.totalAmount), SUM(s.profit), SUM(s.quantity), " + NET_TRANSACTIONS + " " +
+           "FROM Sale s WHERE s.saleDate >= :from AND s.saleDate < :to " +
+           "GROUP BY year(s.saleDate), month(s.saleDate), day(s.saleDate), hour(s.saleDate)")
+    List<Object[]> sumByHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT year(s.saleDate), month(s.saleDate), day(s.saleDate), " +
+           "SUM(s.totalAmount), SUM(s.profit), SUM(s.quantity), " + NET_TRANSACTIONS + " " +
+           "FROM Sale s WHERE s.saleDate >= :from AND s.saleDate < :to " +
+           "GROUP BY year(s.saleDate), month(s.saleDate), day(s.saleDate)")
+    List<Object[]> sumByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT year(s.saleDate), month(s.saleDate), " +
+           "SUM(s.totalAmount), SUM(s.profit), SUM(s.quantity), " + NET_TRANSACTIONS + " " +
+           "FROM Sale s WHERE s.saleDate >= :from AND s.saleDate < :to " +
+           "GROUP BY year(s.saleDate), month(s.saleDate)")
+    List<Object[]> sumByMonth(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT s.medicine.medicineId, s.saleDate, s.quantity, s.totalAmount, s.profit, s.reversalOfSaleId FROM Sale s")
+    Stream<Object[]> streamRollupSource();
+    
+    @Query("SELECT s.saleDate, s.totalAmount, s.profit, s.quantity, s.reversalOfSaleId, s.saleId FROM Sale s WHERE s.saleDate >= :from AND s.saleDate < :to")
+    Stream<Object[]> streamLiveCounterSource(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query(SALE_RESPONSE + "WHERE s.reversalOfSaleId = :saleId")
+    Optional<SaleResponse> findResponseByReversalOfSaleId(@Param("saleId") Long saleId);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SALE_RESPONSE + "WHERE s.saleDate >= :startDate AND s.saleDate <= :endDate ORDER BY s.saleDate, s.saleId")
+    Stream<SaleResponse> streamBySaleDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 }
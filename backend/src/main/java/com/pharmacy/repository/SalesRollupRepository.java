@@ -0,0 +1,56 @@
+package com.pharmacy.repository;
+
+import com.pharmacy.dto.SalesTotals;
+import com.pharmacy.model.SalesRollup;
+import com.pharmacy.model.SalesRollup.Granularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+    
+    boolean existsByGranularityAndBucketStartAndMedicineId(Granularity granularity, LocalDateTime bucketStart, Long medicineId);
+    
+    @Modifying
+    @Query("UPDATE SalesRollup r SET r.revenue = r.revenue + :revenue, r.profit = r.profit + :profit, " +
+           "r.units = r.units + :units, r.transactions = r.transactions + :transactions " +
+           "WHERE r.granularity = :granularity AND r.bucketStart = :bucketStart AND r.medicineId = :medicineId")
+    int addToBucket(@Param("granularity") Granularity granularity,
+                    @Param("bucketStart") LocalDateTime bucketStart,
+                    @Param("medicineId") Long medicineId,
+                    @Param("revenue") BigDecimal revenue,
+                    @Param("profit") BigDecimal profit,
+                    @Param("units") long units,
+                    @Param("transactions") long transactions);
+    
+    @Query("SELECT new com.pharmacy.dto.SalesTotals(SUM(r.revenue), SUM(r.profit), SUM(r.units), SUM(r.transactions)) " +
+           "FROM SalesRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to")
+    SalesTotals sumBetween(@Param("granularity") Granularity granularity,
+                           @Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to);
+    
+    @Query("SELECT r.medicineId, SUM(r.revenue), SUM(r.profit), SUM(r.units), SUM(r.transactions) " +
+           "FROM SalesRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.medicineId")
+    List<Object[]> sumByMedicineBetween(@Param("granularity") Granularity granularity,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+    
+    @Query("SELECT r.medicineId, r.bucketStart, r.units FROM SalesRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.medicineId, r.bucketStart")
+    Stream<Object[]> streamUnitsBetween(@Param("granularity") Granularity granularity,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+    
+    @Modifying
+    @Query("DELETE FROM SalesRollup r WHERE r.medicineId = :medicineId")
+    int deleteByMedicineId(@Param("medicineId") Long medicineId);
+}
@@ -0,0 +1,80 @@
+package com.pharmacy.repository;
+
+import com.pharmacy.dto.ExpiryItemDTO;
+import com.pharmacy.dto.LotExpiryDTO;
+import com.pharmacy.model.StockLot;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface StockLotRepository extends JpaRepository<StockLot, Long> {
+    
+    // One row per medicine with open stock in an expiry range: the units at risk and the soonest
+    // lot expiry among them. Every filter is a range on idx_stock_lots_expiry_date.
+    String EXPIRY_ITEM = "SELECT new com.pharmacy.dto.ExpiryItemDTO(m.medicineId, m.name, m.category, " +
+                         "CAST(SUM(l.remainingQuantity) AS Integer), MIN(l.expiryDate)) " +
+                         "FROM StockLot l JOIN Medicine m ON m.medicineId = l.medicineId WHERE l.remainingQuantity > 0 AND ";
+    String EXPIRY_GROUP = " GROUP BY m.medicineId, m.name, m.category ORDER BY MIN(l.expiryDate), m.medicineId";
+    
+    @Query(EXPIRY_ITEM + "l.expiryDate < :date" + EXPIRY_GROUP)
+    List<ExpiryItemDTO> findExpiryItemsBefore(@Param("date") LocalDate date, Pageable pageable);
+    
+    @Query(EXPIRY_ITEM + "l.expiryDate BETWEEN :from AND :to" + EXPIRY_GROUP)
+    List<ExpiryItemDTO> findExpiryItemsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+    
+    @Query("SELECT COUNT(DISTINCT l.medicineId) FROM StockLot l WHERE l.remainingQuantity > 0 AND l.expiryDate < :date")
+    long countMedicinesExpiringBefore(@Param("date") LocalDate date);
+    
+    @Query("SELECT COUNT(DISTINCT l.medicineId) FROM StockLot l " +
+           "WHERE l.remainingQuantity > 0 AND l.expiryDate BETWEEN :from AND :to")
+    long countMedicinesExpiringBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    // One range scan up to the end of the last window; a medicine counts once in each window it has stock in
+    @Query("SELECT COUNT(DISTINCT CASE WHEN l.expiryDate < :today THEN l.medicineId END), " +
+           "COUNT(DISTINCT CASE WHEN l.expiryDate >= :today AND l.expiryDate <= :to30 THEN l.medicineId END), " +
+           "COUNT(DISTINCT CASE WHEN l.expiryDate > :to30 AND l.expiryDate <= :to60 THEN l.medicineId END), " +
+           "COUNT(DISTINCT CASE WHEN l.expiryDate > :to60 THEN l.medicineId END) " +
+           "FROM StockLot l WHERE l.remainingQuantity > 0 AND l.expiryDate <= :to90")
+    List<Object[]> countExpiryWindows(@Param("today") LocalDate today, @Param("to30") LocalDate to30,
+                                      @Param("to60") LocalDate to60, @Param("to90") LocalDate to90);
+    
+    @Query("SELECT l FROM StockLot l WHERE l.remainingQuantity > 0")
+    Stream<StockLot> streamOpenLots();
+    
+    @Query("SELECT l FROM StockLot l WHERE l.medicineId = :medicineId AND l.remainingQuantity > 0")
+    List<StockLot> findOpenLots(@Param("medicineId") Long medicineId);
+    
+    // Plain columns rather than entities, so a sale reads the rows as its own updates left them
+    @Query("SELECT l.lotId, l.expiryDate, l.remainingQuantity FROM StockLot l " +
+           "WHERE l.medicineId = :medicineId AND l.remainingQuantity > 0")
+    List<Object[]> findOpenLotRows(@Param("medicineId") Long medicineId);
+    
+    boolean existsByMedicineId(Long medicineId);
+    
+    @Query("SELECT new com.pharmacy.dto.LotExpiryDTO(l.lotId, l.medicineId, m.name, l.purchaseId, l.expiryDate, " +
+           "l.remainingQuantity, l.receivedAt) FROM StockLot l JOIN Medicine m ON m.medicineId = l.medicineId " +
+           "WHERE l.remainingQuantity > 0 AND l.expiryDate <= :date ORDER BY l.expiryDate, l.lotId")
+    List<LotExpiryDTO> findOpenLotsExpiringBy(@Param("date") LocalDate date, Pageable pageable);
+    
+    // Conditional take: returns 0 if the lot no longer holds enough
+    @Modifying
+    @Query("UPDATE StockLot l SET l.remainingQuantity = l.remainingQuantity - :quantity " +
+           "WHERE l.lotId = :lotId AND l.remainingQuantity >= :quantity")
+    int take(@Param("lotId") Long lotId, @Param("quantity") int quantity);
+    
+    @Modifying
+    @Query("UPDATE StockLot l SET l.remainingQuantity = l.remainingQuantity + :quantity WHERE l.lotId = :lotId")
+    int putBack(@Param("lotId") Long lotId, @Param("quantity") int quantity);
+    
+    @Modifying
+    @Query("DELETE FROM StockLot l WHERE l.medicineId = :medicineId")
+    int deleteByMedicineId(@Param("medicineId") Long medicineId);
+}
@@ -2,8 +2,14 @@ package com.pharmacy.repository;
 
 import com.pharmacy.model.Supplier;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface SupplierRepository extends JpaRepository<Supplier, Long> {
+    
+    @Query("SELECT s.supplierId, s.name FROM Supplier s")
+    List<Object[]> findIdsAndNames();
 }
@@ -0,0 +1,141 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.CatalogChanges;
+import com.pharmacy.dto.MedicineDTO;
+import com.pharmacy.model.MedicineTombstone;
+import com.pharmacy.repository.MedicineRepository;
+import com.pharmacy.repository.MedicineTombstoneRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Monotonic catalog revision for delta syncs. Every medicine write stamps its row with a
+ * fresh revision and deletes leave a tombstone. Revisions are handed out from a counter and
+ * marked done when their transaction finishes; syncs only read up to the highest revision
+ * below which everything is done, so a write can never commit underneath a revision a
+ * client has already been given. Neither path takes a lock once the counter is loaded.
+ */
+@Service
+public class CatalogRevisionService {
+    
+    private static final int MAX_CHANGES = 1000;
+    
+    private final MedicineRepository medicineRepository;
+    private final MedicineTombstoneRepository tombstoneRepository;
+    private final AtomicLong latest = new AtomicLong(-1);
+    // Every revision up to here has committed or rolled back
+    private final AtomicLong watermark = new AtomicLong(-1);
+    // Finished revisions above the watermark, waiting for an older one to finish
+    private final Set<Long> done = ConcurrentHashMap.newKeySet();
+    
+    public CatalogRevisionService(MedicineRepository medicineRepository,
+                                  MedicineTombstoneRepository tombstoneRepository) {
+        this.medicineRepository = medicineRepository;
+        this.tombstoneRepository = tombstoneRepository;
+    }
+    
+    // Held until the caller's transaction completes; without one it is released straight away
+    public long next() {
+        if (latest.get() < 0) {
+            loadLatest();
+        }
+        long revision = latest.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    release(revision);
+                }
+            });
+        } else {
+            release(revision);
+        }
+        return revision;
+    }
+    
+    // Highest revision below which every write has either committed or rolled back
+    public long visibleRevision() {
+        if (latest.get() < 0) {
+            loadLatest();
+        }
+        return watermark.get();
+    }
+    
+    public void recordDeletion(Long medicineId) {
+        tombstoneRepository.save(new MedicineTombstone(medicineId, next(), LocalDateTime.now()));
+    }
+    
+    @Transactional(readOnly = true)
+    public CatalogChanges getChanges(long since, Integer limit) {
+        long upTo = visibleRevision();
+        if (since < 0 || since > upTo) {
+            throw new RuntimeException("Unknown catalog revision " + since + "; reload the full catalog");
+        }
+        int size = limit != null ? Math.max(1, Math.min(limit, MAX_CHANGES)) : MAX_CHANGES;
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<Object[]> changedRows = medicineRepository.findRevisionsBetween(since, upTo, page);
+        List<Object[]> deletedRows = tombstoneRepository.findRevisionsBetween(since, upTo, page);
+        
+        // Merge both revision-ordered lists and stop after a page, so the next call resumes cleanly
+        List<Long> changedIds = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        int c = 0;
+        int d = 0;
+        long revision = upTo;
+        while (changedIds.size() + deleted.size() < size && (c < changedRows.size() || d < deletedRows.size())) {
+            boolean takeChanged = d >= deletedRows.size()
+                    || (c < changedRows.size() && (Long) changedRows.get(c)[1] < (Long) deletedRows.get(d)[1]);
+            Object[] row = takeChanged ? changedRows.get(c++) : deletedRows.get(d++);
+            (takeChanged ? changedIds : deleted).add((Long) row[0]);
+            revision = (Long) row[1];
+        }
+        boolean hasMore = c < changedRows.size() || d < deletedRows.size();
+        if (!hasMore) {
+            revision = upTo;
+        }
+        
+        List<MedicineDTO> changed = new ArrayList<>(changedIds.size());
+        if (!changedIds.isEmpty()) {
+            Map<Long, MedicineDTO> rows = medicineRepository.findDTOsByIds(changedIds).stream()
+                    .collect(Collectors.toMap(MedicineDTO::getMedicineId, Function.identity()));
+            // Rows deleted since the first query come back as tombstones on the next sync
+            changedIds.stream().map(rows::get).filter(Objects::nonNull).forEach(changed::add);
+        }
+        return new CatalogChanges(since, revision, changed, deleted, hasMore);
+    }
+    
+    // Whichever release fills the gap above the watermark carries it past every later finished one
+    private void release(long revision) {
+        done.add(revision);
+        long current = watermark.get();
+        while (done.contains(current + 1)) {
+            if (watermark.compareAndSet(current, current + 1)) {
+                done.remove(current + 1);
+            }
+            current = watermark.get();
+        }
+    }
+    
+    // Loaded on first use, once the schema is in place
+    private synchronized void loadLatest() {
+        if (latest.get() < 0) {
+            long loaded = Math.max(medicineRepository.findMaxRevision(), tombstoneRepository.findMaxRevision());
+            watermark.set(loaded);
+            latest.set(loaded);
+        }
+    }
+}
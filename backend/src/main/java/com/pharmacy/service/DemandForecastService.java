@@ -0,0 +1,202 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.ForecastDTO;
+import com.pharmacy.model.SalesRollup.Granularity;
+import com.pharmacy.repository.MedicineRepository;
+import com.pharmacy.repository.SaleRepository;
+import com.pharmacy.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Per-medicine exponentially smoothed daily demand and variance.
+ * Committed sales add to the current day's units; each closed day is folded into the
+ * smoothed level once, so forecasts never re-scan sales history. Seeded on startup from
+ * the sales dated before this instance started; sales recorded before the seed has run are
+ * held back and replayed on top of it.
+ */
+@Service
+public class DemandForecastService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DemandForecastService.class);
+    // Beyond this many idle days the level has decayed to nothing anyway
+    private static final int MAX_FOLDED_GAP_DAYS = 3650;
+    
+    private final MedicineRepository medicineRepository;
+    private final SaleRepository saleRepository;
+    private final SalesRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double alpha;
+    private final int leadTimeDays;
+    private final double serviceLevelZ;
+    private final int historyDays;
+    private final ConcurrentHashMap<Long, Demand> demands = new ConcurrentHashMap<>();
+    // Every sale dated from here on is recorded live; the seed reads only older ones
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final Object seedLock = new Object();
+    private List<EarlySale> earlySales = new ArrayList<>();
+    private volatile boolean seeded;
+    
+    public DemandForecastService(MedicineRepository medicineRepository,
+                                 SaleRepository saleRepository,
+                                 SalesRollupRepository rollupRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${pharmacy.forecast.alpha:0.2}") double alpha,
+                                 @Value("${pharmacy.forecast.lead-time-days:7}") int leadTimeDays,
+                                 @Value("${pharmacy.forecast.service-level-z:1.65}") double serviceLevelZ,
+                                 @Value("${pharmacy.forecast.history-days:180}") int historyDays) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("pharmacy.forecast.alpha must be in (0, 1]");
+        }
+        this.medicineRepository = medicineRepository;
+        this.saleRepository = saleRepository;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.alpha = alpha;
+        this.leadTimeDays = Math.max(1, leadTimeDays);
+        this.serviceLevelZ = serviceLevelZ;
+        this.historyDays = Math.max(1, historyDays);
+    }
+    
+    // Called by SaleService once a sale has committed
+    public void record(Long medicineId, int units, LocalDateTime saleDate) {
+        if (!seeded) {
+            synchronized (seedLock) {
+                if (!seeded) {
+                    earlySales.add(new EarlySale(medicineId, units, saleDate));
+                    return;
+                }
+            }
+        }
+        addTo(demands, medicineId, units, saleDate);
+    }
+    
+    private void addTo(ConcurrentHashMap<Long, Demand> target, Long medicineId, long units, LocalDateTime saleDate) {
+        target.computeIfAbsent(medicineId, id -> new Demand(saleDate.toLocalDate()))
+                .add(saleDate.toLocalDate(), units);
+    }
+    
+    public List<ForecastDTO> getForecast(boolean reorderOnly) {
+        LocalDate today = LocalDate.now();
+        List<ForecastDTO> forecasts = new ArrayList<>();
+        for (Object[] row : medicineRepository.findStockSummaries()) {
+            Long medicineId = (Long) row[0];
+            Integer quantity = (Integer) row[2];
+            Demand demand = demands.get(medicineId);
+            double mean = 0;
+            double variance = 0;
+            if (demand != null) {
+                synchronized (demand) {
+                    demand.advanceTo(today);
+                    mean = demand.level;
+                    variance = demand.variance;
+                }
+            }
+            
+            int reorderPoint = (int) Math.ceil(mean * leadTimeDays + serviceLevelZ * Math.sqrt(variance * leadTimeDays));
+            boolean reorderNow = quantity <= reorderPoint;
+            if (reorderOnly && !reorderNow) {
+                continue;
+            }
+            BigDecimal daysOfCover = mean > 0 ? BigDecimal.valueOf(quantity / mean).setScale(1, RoundingMode.HALF_UP) : null;
+            forecasts.add(new ForecastDTO(medicineId, (String) row[1], quantity, (Integer) row[3],
+                    BigDecimal.valueOf(mean).setScale(2, RoundingMode.HALF_UP),
+                    BigDecimal.valueOf(Math.sqrt(variance)).setScale(2, RoundingMode.HALF_UP),
+                    reorderPoint, daysOfCover, reorderNow));
+        }
+        return forecasts;
+    }
+    
+    // Closed days come from the daily rollups, the start of the startup day from the sales table
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFromRollups() {
+        LocalDateTime startDay = startedAt.toLocalDate().atStartOfDay();
+        LocalDateTime from = startDay.minusDays(historyDays);
+        ConcurrentHashMap<Long, Demand> history = new ConcurrentHashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = rollupRepository.streamUnitsBetween(Granularity.DAILY, from, startDay)) {
+                rows.forEach(row -> addTo(history, (Long) row[0], (Long) row[2], (LocalDateTime) row[1]));
+            }
+            for (Object[] row : saleRepository.sumByMedicineBetween(startDay, startedAt)) {
+                addTo(history, (Long) row[0], (Long) row[3], startDay);
+            }
+        });
+        
+        int replayed;
+        synchronized (seedLock) {
+            replayed = earlySales.size();
+            for (EarlySale sale : earlySales) {
+                addTo(history, sale.medicineId(), sale.units(), sale.saleDate());
+            }
+            demands.putAll(history);
+            earlySales = null;
+            seeded = true;
+        }
+        logger.info("Demand forecast seeded for {} medicines from {} days of history, {} sales replayed",
+                history.size(), historyDays, replayed);
+    }
+    
+    private record EarlySale(Long medicineId, int units, LocalDateTime saleDate) {
+    }
+    
+    private class Demand {
+        private LocalDate day;
+        private long dayUnits;
+        private double level;
+        private double variance;
+        private boolean initialized;
+        
+        private Demand(LocalDate firstDay) {
+            this.day = firstDay;
+        }
+        
+        private synchronized void add(LocalDate saleDay, long units) {
+            advanceTo(saleDay);
+            // Late arrivals for an already-folded day count towards the open one
+            dayUnits += units;
+        }
+        
+        // Folds every closed day before the given one, including days without sales
+        private void advanceTo(LocalDate target) {
+            long gap = ChronoUnit.DAYS.between(day, target);
+            if (gap <= 0) {
+                return;
+            }
+            fold(dayUnits);
+            for (long i = 1; i < Math.min(gap, MAX_FOLDED_GAP_DAYS); i++) {
+                fold(0);
+            }
+            day = target;
+            dayUnits = 0;
+        }
+        
+        private void fold(double units) {
+            if (!initialized) {
+                level = units;
+                variance = 0;
+                initialized = true;
+                return;
+            }
+            double error = units - level;
+            level += alpha * error;
+            variance = (1 - alpha) * (variance + alpha * error * error);
+        }
+    }
+}
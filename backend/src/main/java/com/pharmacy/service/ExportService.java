@@ -0,0 +1,100 @@
+package com.pharmacy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.dto.DataFormat;
+import com.pharmacy.dto.PurchaseDTO;
+import com.pharmacy.dto.SaleResponse;
+import com.pharmacy.repository.PurchaseRepository;
+import com.pharmacy.repository.SaleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+    
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    
+    private final SaleRepository saleRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final ObjectMapper objectMapper;
+    
+    // Rows are streamed from the database as lean projections, so memory stays flat
+    @Transactional(readOnly = true)
+    public void exportSales(LocalDateTime startDate, LocalDateTime endDate, DataFormat format, Writer writer) throws IOException {
+        try (Stream<SaleResponse> rows = saleRepository.streamBySaleDateBetween(startDate, endDate)) {
+            write(rows, format, writer,
+                    List.of("saleId", "saleDate", "medicineName", "quantity", "totalAmount", "profit", "userName",
+                            "reversalOfSaleId", "reversalType"),
+                    sale -> List.of(sale.getSaleId(), sale.getSaleDate(), sale.getMedicineName(), sale.getQuantity(),
+                            sale.getTotalAmount(), nullToEmpty(sale.getProfit()), sale.getUserName(),
+                            nullToEmpty(sale.getReversalOfSaleId()), nullToEmpty(sale.getReversalType())));
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public void exportPurchases(LocalDateTime startDate, LocalDateTime endDate, DataFormat format, Writer writer) throws IOException {
+        try (Stream<PurchaseDTO> rows = purchaseRepository.streamByPurchaseDateBetween(startDate, endDate)) {
+            write(rows, format, writer,
+                    List.of("purchaseId", "purchaseDate", "medicineId", "medicineName", "supplierId", "supplierName",
+                            "quantity", "totalCost"),
+                    purchase -> List.of(purchase.getPurchaseId(), purchase.getPurchaseDate(), purchase.getMedicineId(),
+                            purchase.getMedicineName(), purchase.getSupplierId(), purchase.getSupplierName(),
+                            purchase.getQuantity(), purchase.getTotalCost()));
+        }
+    }
+    
+    private <T> void write(Stream<T> rows, DataFormat format, Writer writer, List<String> header,
+                           Function<T, List<Object>> csvColumns) throws IOException {
+        if (format == DataFormat.CSV) {
+            writer.write(String.join(",", header));
+            writer.write('\n');
+        }
+        
+        int written = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == DataFormat.CSV) {
+                writeCsvLine(writer, csvColumns.apply(row));
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            if (++written % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+    
+    private void writeCsvLine(Writer writer, List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(String.valueOf(values.get(i))));
+        }
+        writer.write('\n');
+    }
+    
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    
+    private Object nullToEmpty(Object value) {
+        return value != null ? value : "";
+    }
+}
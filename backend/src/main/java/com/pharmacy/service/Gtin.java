@@ -0,0 +1,25 @@
+package com.pharmacy.service;
+
+// GTIN-8, -12 (UPC-A), -13 (EAN) and -14 codes, stored as 14 digits so each product has one key
+final class Gtin {
+    
+    private Gtin() {
+    }
+    
+    static String normalize(String code) {
+        String digits = code == null ? "" : code.replaceAll("[\\s-]", "");
+        if (!digits.matches("\\d{8}|\\d{12,14}")) {
+            throw new RuntimeException("Barcode must be a GTIN of 8, 12, 13 or 14 digits");
+        }
+        String gtin = "0".repeat(14 - digits.length()) + digits;
+        // Weights alternate 3, 1, 3, ... from the digit left of the check digit
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            sum += (gtin.charAt(i) - '0') * (i % 2 == 0 ? 3 : 1);
+        }
+        if ((10 - sum % 10) % 10 != gtin.charAt(13) - '0') {
+            throw new RuntimeException("Barcode check digit is wrong");
+        }
+        return gtin;
+    }
+}
@@ -0,0 +1,90 @@
+package com.pharmacy.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.cache.TtlCache;
+import com.pharmacy.exception.ConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotencyService {
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    private final TtlCache<String, Entry> responses;
+    private final ObjectMapper objectMapper;
+    
+    public IdempotencyService(@Value("${pharmacy.idempotency.max-keys:10000}") int maxKeys,
+                              @Value("${pharmacy.idempotency.ttl-minutes:60}") long ttlMinutes,
+                              ObjectMapper objectMapper) {
+        // A key whose action is still running must outlive eviction, or a retry would run it again
+        this.responses = new TtlCache<>(maxKeys, Duration.ofMinutes(ttlMinutes), entry -> !entry.response.isDone());
+        this.objectMapper = objectMapper;
+    }
+    
+    // Runs the action once per (scope, user, key); replays get the original response,
+    // and a replay racing the original waits for it instead of running twice.
+    // A key reused with a different request body is refused rather than replayed.
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String idempotencyKey, Object request, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        
+        String key = scope + ':' + currentPrincipal() + ':' + idempotencyKey;
+        Entry pending = new Entry(fingerprint(request), new CompletableFuture<>());
+        Entry original = responses.putIfAbsent(key, pending);
+        if (original != null) {
+            if (!Arrays.equals(original.fingerprint, pending.fingerprint)) {
+                throw new ConflictException("Idempotency-Key was already used with a different request", null);
+            }
+            try {
+                return (T) original.response.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        
+        try {
+            T result = action.get();
+            pending.response.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            // Failed attempts are forgotten so the client can retry with the same key
+            responses.remove(key);
+            pending.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    // SHA-256 of the request as JSON; the body itself is not kept
+    private byte[] fingerprint(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint the request", e);
+        }
+    }
+    
+    private String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+    
+    private record Entry(byte[] fingerprint, CompletableFuture<Object> response) {
+    }
+}
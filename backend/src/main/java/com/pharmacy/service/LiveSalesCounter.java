@@ -0,0 +1,160 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.LiveSalesSnapshot;
+import com.pharmacy.repository.SaleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Lock-free running totals for the current trading day, kept per minute and per day.
+ * Fed with committed sales by SaleService and topped up from the database on startup,
+ * so "today so far" figures are served without any SQL. Tills may already be selling while
+ * the startup query runs, so until then each of the day's sales is counted once by id.
+ */
+@Service
+public class LiveSalesCounter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LiveSalesCounter.class);
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    
+    private final SaleRepository saleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicReference<DayCounters> current = new AtomicReference<>(new DayCounters(LocalDate.now(), true));
+    private volatile boolean rebuilt;
+    
+    public LiveSalesCounter(SaleRepository saleRepository, PlatformTransactionManager transactionManager) {
+        this.saleRepository = saleRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+    
+    // Reversals pass -1 transactions along with their negative amounts
+    public void record(Long saleId, LocalDateTime saleDate, BigDecimal amount, BigDecimal profit, int units, int transactions) {
+        DayCounters day = countersFor(saleDate.toLocalDate());
+        if (day != null) {
+            day.add(saleId, saleDate, amount, profit, units, transactions);
+        }
+    }
+    
+    public LiveSalesSnapshot today() {
+        LocalDateTime now = LocalDateTime.now();
+        DayCounters day = countersFor(now.toLocalDate());
+        if (day == null) {
+            day = current.get();
+        }
+        int minute = minuteOfDay(now);
+        long lastHourCents = 0;
+        for (int m = Math.max(0, minute - 59); m <= minute; m++) {
+            lastHourCents += day.revenueCents.get(m);
+        }
+        return new LiveSalesSnapshot(day.date, fromCents(day.totalRevenueCents.sum()), fromCents(day.totalProfitCents.sum()),
+                day.totalUnits.sum(), day.totalTransactions.sum(), fromCents(lastHourCents), now);
+    }
+    
+    // Adds today's committed sales to the counters; any the tills already recorded are skipped
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildFromDatabase() {
+        LocalDate today = LocalDate.now();
+        DayCounters day = countersFor(today);
+        long[] added = new long[1];
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = saleRepository.streamLiveCounterSource(today.atStartOfDay(), today.plusDays(1).atStartOfDay())) {
+                rows.forEach(row -> {
+                    if (day.add((Long) row[5], (LocalDateTime) row[0], (BigDecimal) row[1], (BigDecimal) row[2], (Integer) row[3],
+                            row[4] == null ? 1 : -1)) {
+                        added[0]++;
+                    }
+                });
+            }
+        });
+        rebuilt = true;
+        logger.info("Live sales counters rebuilt for {}: {} sales added, {} transactions", today, added[0],
+                day.totalTransactions.sum());
+    }
+    
+    // Returns the counters for the given day, rolling over to a new day when needed;
+    // null for sales dated before the current day, which only the database tracks.
+    private DayCounters countersFor(LocalDate date) {
+        while (true) {
+            DayCounters day = current.get();
+            int comparison = date.compareTo(day.date);
+            if (comparison == 0) {
+                return day;
+            }
+            if (comparison < 0) {
+                return null;
+            }
+            DayCounters next = new DayCounters(date, !rebuilt);
+            if (current.compareAndSet(day, next)) {
+                return next;
+            }
+        }
+    }
+    
+    private static int minuteOfDay(LocalDateTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+    
+    private static long toCents(BigDecimal value) {
+        return value == null ? 0 : value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+    
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+    
+    private static class DayCounters {
+        private final LocalDate date;
+        private final AtomicLongArray revenueCents = new AtomicLongArray(MINUTES_PER_DAY);
+        private final AtomicLongArray profitCents = new AtomicLongArray(MINUTES_PER_DAY);
+        private final AtomicLongArray units = new AtomicLongArray(MINUTES_PER_DAY);
+        private final AtomicLongArray transactions = new AtomicLongArray(MINUTES_PER_DAY);
+        private final LongAdder totalRevenueCents = new LongAdder();
+        private final LongAdder totalProfitCents = new LongAdder();
+        private final LongAdder totalUnits = new LongAdder();
+        private final LongAdder totalTransactions = new LongAdder();
+        // Sale ids already counted; only kept for a day that is live before the startup rebuild
+        private final Set<Long> counted;
+        
+        private DayCounters(LocalDate date, boolean deduplicate) {
+            this.date = date;
+            this.counted = deduplicate ? ConcurrentHashMap.newKeySet() : null;
+        }
+        
+        // False when the sale had already been counted
+        private boolean add(Long saleId, LocalDateTime saleDate, BigDecimal amount, BigDecimal profit, int quantity,
+                            int transactionCount) {
+            if (counted != null && saleId != null && !counted.add(saleId)) {
+                return false;
+            }
+            int minute = minuteOfDay(saleDate);
+            long amountCents = toCents(amount);
+            long profitCentsValue = toCents(profit);
+            revenueCents.addAndGet(minute, amountCents);
+            profitCents.addAndGet(minute, profitCentsValue);
+            units.addAndGet(minute, quantity);
+            transactions.addAndGet(minute, transactionCount);
+            totalRevenueCents.add(amountCents);
+            totalProfitCents.add(profitCentsValue);
+            totalUnits.add(quantity);
+            totalTransactions.add(transactionCount);
+            return true;
+        }
+    }
+}
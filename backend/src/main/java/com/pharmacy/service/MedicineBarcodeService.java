@@ -0,0 +1,90 @@
+package com.pharmacy.service;
+
+import com.pharmacy.event.MedicineChangedEvent;
+import com.pharmacy.repository.MedicineRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Barcode to medicine id map for scanner checkout. Scans never touch the database:
+ * the map is loaded on startup and patched after each committed catalog change, and
+ * the unique index on medicines.barcode stays the source of truth.
+ */
+@Service
+public class MedicineBarcodeService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MedicineBarcodeService.class);
+    
+    private final MedicineRepository medicineRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Long> idsByBarcode = new ConcurrentHashMap<>();
+    private final Map<Long, String> barcodesById = new ConcurrentHashMap<>();
+    
+    public MedicineBarcodeService(MedicineRepository medicineRepository, PlatformTransactionManager transactionManager) {
+        this.medicineRepository = medicineRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+    
+    public Optional<Long> findMedicineId(String barcode) {
+        return Optional.ofNullable(idsByBarcode.get(Gtin.normalize(barcode)));
+    }
+    
+    // Friendlier than the unique index error; the index still settles concurrent writes
+    public void checkAvailable(String gtin, Long medicineId) {
+        Long owner = idsByBarcode.get(gtin);
+        if (owner != null && !owner.equals(medicineId)) {
+            throw new RuntimeException("Barcode " + gtin + " is already assigned to medicine " + owner);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Object[]> rows = transactionTemplate.execute(status -> medicineRepository.findBarcodes());
+        idsByBarcode.clear();
+        barcodesById.clear();
+        rows.forEach(row -> put((Long) row[1], (String) row[0]));
+        logger.info("Barcode index built for {} medicines", rows.size());
+    }
+    
+    // Stock-only changes never touch barcodes
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMedicineChanged(MedicineChangedEvent event) {
+        if (event.isStockOnly()) {
+            return;
+        }
+        if (event.isAll()) {
+            rebuild();
+            return;
+        }
+        Long medicineId = event.getMedicineId();
+        // Read and patch under one lock, so a slower handler cannot put back a barcode a later one replaced
+        synchronized (this) {
+            Optional<String> barcode = transactionTemplate.execute(status -> medicineRepository.findBarcodeById(medicineId));
+            String previous = barcodesById.remove(medicineId);
+            if (previous != null) {
+                idsByBarcode.remove(previous, medicineId);
+            }
+            barcode.ifPresent(gtin -> put(medicineId, gtin));
+        }
+    }
+    
+    private void put(Long medicineId, String gtin) {
+        idsByBarcode.put(gtin, medicineId);
+        barcodesById.put(medicineId, gtin);
+    }
+}
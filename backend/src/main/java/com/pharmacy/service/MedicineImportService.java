@@ -0,0 +1,394 @@
+package com.pharmacy.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.dto.DataFormat;
+import com.pharmacy.dto.ImportResult;
+import com.pharmacy.dto.ImportRowError;
+import com.pharmacy.dto.MedicineImportRow;
+import com.pharmacy.event.MedicineChangedEvent;
+import com.pharmacy.model.Medicine;
+import com.pharmacy.model.StockLot;
+import com.pharmacy.repository.SupplierRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk catalog import from CSV or NDJSON / JSON arrays. Rows are parsed one at a time,
+ * validated against an in-memory supplier map and inserted in JDBC batches, each batch in
+ * its own transaction, so memory stays flat and one bad row never loses the others.
+ */
+@Service
+public class MedicineImportService {
+    
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final String INSERT_SQL = "INSERT INTO medicines (name, name_key, category, cost_price, selling_price, " +
+            "quantity, expiry_date, reorder_level, low_stock, supplier_id, barcode, revision, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final int QUANTITY_ARG = 5;
+    private static final int EXPIRY_ARG = 6;
+    private static final int REVISION_ARG = 11;
+    
+    private final SupplierRepository supplierRepository;
+    private final CatalogRevisionService catalogRevisionService;
+    private final StockLotService stockLotService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public MedicineImportService(SupplierRepository supplierRepository,
+                                 CatalogRevisionService catalogRevisionService,
+                                 StockLotService stockLotService,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.supplierRepository = supplierRepository;
+        this.catalogRevisionService = catalogRevisionService;
+        this.stockLotService = stockLotService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    public ImportResult importMedicines(DataFormat format, InputStream input) throws IOException {
+        Batch batch = new Batch(loadSuppliers());
+        try {
+            if (format == DataFormat.CSV) {
+                readCsv(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), batch);
+            } else {
+                readJson(input, batch);
+            }
+            batch.flush();
+        } finally {
+            if (batch.imported > 0) {
+                eventPublisher.publishEvent(MedicineChangedEvent.all());
+            }
+        }
+        return new ImportResult(batch.rows, batch.imported, batch.failed, batch.errors,
+                batch.failed > batch.errors.size());
+    }
+    
+    private void readJson(InputStream input, Batch batch) throws IOException {
+        // A root-level array is unwrapped, otherwise values are read one after another
+        try (MappingIterator<MedicineImportRow> rows = objectMapper.readerFor(MedicineImportRow.class).readValues(input)) {
+            while (true) {
+                try {
+                    if (!rows.hasNextValue()) {
+                        return;
+                    }
+                    batch.rows++;
+                    batch.add(rows.nextValue());
+                } catch (JsonParseException e) {
+                    batch.reject("Malformed JSON, import stopped: " + e.getOriginalMessage());
+                    return;
+                } catch (JsonProcessingException e) {
+                    batch.reject("Invalid value: " + e.getOriginalMessage());
+                }
+            }
+        }
+    }
+    
+    private void readCsv(BufferedReader reader, Batch batch) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Spreadsheet exports often start with a byte order mark
+            String column = i == 0 ? header.get(i).replace("\uFEFF", "") : header.get(i);
+            columns.put(column.trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            batch.rows++;
+            try {
+                MedicineImportRow row = new MedicineImportRow();
+                row.setName(field(record, columns, "name"));
+                row.setCategory(field(record, columns, "category"));
+                row.setCostPrice(decimal(field(record, columns, "costprice")));
+                row.setSellingPrice(decimal(field(record, columns, "sellingprice")));
+                row.setQuantity(integer(field(record, columns, "quantity")));
+                String expiry = field(record, columns, "expirydate");
+                row.setExpiryDate(expiry != null ? LocalDate.parse(expiry) : null);
+                row.setReorderLevel(integer(field(record, columns, "reorderlevel")));
+                String supplierId = field(record, columns, "supplierid");
+                row.setSupplierId(supplierId != null ? Long.valueOf(supplierId) : null);
+                row.setSupplierName(field(record, columns, "suppliername"));
+                row.setBarcode(field(record, columns, "barcode"));
+                batch.add(row);
+            } catch (RuntimeException e) {
+                batch.reject("Invalid value: " + e.getMessage());
+            }
+        }
+    }
+    
+    private Map<String, Long> loadSuppliers() {
+        Map<String, Long> suppliers = new HashMap<>();
+        for (Object[] row : supplierRepository.findIdsAndNames()) {
+            suppliers.put("#" + row[0], (Long) row[0]);
+            suppliers.putIfAbsent(((String) row[1]).trim().toLowerCase(Locale.ROOT), (Long) row[0]);
+        }
+        return suppliers;
+    }
+    
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    private static BigDecimal decimal(String value) {
+        return value != null ? new BigDecimal(value) : null;
+    }
+    
+    private static Integer integer(String value) {
+        return value != null ? Integer.valueOf(value) : null;
+    }
+    
+    private class Batch {
+        private final Map<String, Long> suppliers;
+        private final List<Object[]> pending = new ArrayList<>(BATCH_SIZE);
+        private final List<Long> pendingRows = new ArrayList<>(BATCH_SIZE);
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long failed;
+        
+        private Batch(Map<String, Long> suppliers) {
+            this.suppliers = suppliers;
+        }
+        
+        private void add(MedicineImportRow row) {
+            String problem = validate(row);
+            if (problem != null) {
+                reject(problem);
+                return;
+            }
+            Long supplierId = row.getSupplierId() != null
+                    ? suppliers.get("#" + row.getSupplierId())
+                    : suppliers.get(row.getSupplierName().trim().toLowerCase(Locale.ROOT));
+            if (supplierId == null) {
+                reject("Supplier not found");
+                return;
+            }
+            String barcode = null;
+            if (row.getBarcode() != null && !row.getBarcode().isBlank()) {
+                try {
+                    barcode = Gtin.normalize(row.getBarcode());
+                } catch (RuntimeException e) {
+                    reject(e.getMessage());
+                    return;
+                }
+            }
+            String name = row.getName().trim();
+            pending.add(new Object[]{name, Medicine.nameKey(name), row.getCategory().trim(), row.getCostPrice(),
+                    row.getSellingPrice(), row.getQuantity(), Date.valueOf(row.getExpiryDate()), row.getReorderLevel(),
+                    row.getQuantity() <= row.getReorderLevel(), supplierId, barcode, null});
+            pendingRows.add(rows);
+            if (pending.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+        
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    // Drawn inside the transaction so syncs wait for the batch to commit
+                    pending.forEach(args -> args[REVISION_ARG] = catalogRevisionService.next());
+                    insert(pending);
+                });
+                imported += pending.size();
+            } catch (DataAccessException e) {
+                // Rare after validation; retry row by row so only the offending rows are reported
+                for (int i = 0; i < pending.size(); i++) {
+                    Object[] args = pending.get(i);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            args[REVISION_ARG] = catalogRevisionService.next();
+                            insert(Collections.singletonList(args));
+                        });
+                        imported++;
+                    } catch (DataAccessException rowFailure) {
+                        reject(pendingRows.get(i), "Rejected by the database: " + rowFailure.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            pending.clear();
+            pendingRows.clear();
+        }
+        
+        // Rows and their opening lots go in with the caller's transaction, like MedicineService.createMedicine
+        private void insert(List<Object[]> batch) {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"medicine_id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            new ArgumentPreparedStatementSetter(batch.get(i)).setValues(ps);
+                        }
+                        
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keys);
+            List<Map<String, Object>> ids = keys.getKeyList();
+            LocalDateTime now = LocalDateTime.now();
+            List<StockLot> lots = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                int quantity = (Integer) batch.get(i)[QUANTITY_ARG];
+                if (quantity > 0) {
+                    Long medicineId = ((Number) ids.get(i).values().iterator().next()).longValue();
+                    LocalDate expiryDate = ((Date) batch.get(i)[EXPIRY_ARG]).toLocalDate();
+                    lots.add(new StockLot(null, medicineId, null, expiryDate, quantity, quantity, now));
+                }
+            }
+            stockLotService.receiveAll(lots);
+        }
+        
+        // Only the first errors are kept in full; the rest are just counted
+        private void reject(String message) {
+            reject(rows, message);
+        }
+        
+        private void reject(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportRowError(row, message));
+            }
+        }
+        
+        private String validate(MedicineImportRow row) {
+            if (row == null) {
+                return "Empty row";
+            }
+            if (row.getName() == null || row.getName().isBlank() || row.getName().trim().length() > MAX_TEXT_LENGTH) {
+                return "Name is required (at most " + MAX_TEXT_LENGTH + " characters)";
+            }
+            if (row.getCategory() == null || row.getCategory().isBlank() || row.getCategory().trim().length() > MAX_TEXT_LENGTH) {
+                return "Category is required (at most " + MAX_TEXT_LENGTH + " characters)";
+            }
+            if (!isPrice(row.getCostPrice())) {
+                return "Cost price must be zero or more with at most 2 decimals";
+            }
+            if (!isPrice(row.getSellingPrice())) {
+                return "Selling price must be zero or more with at most 2 decimals";
+            }
+            if (row.getQuantity() == null || row.getQuantity() < 0) {
+                return "Quantity must be zero or more";
+            }
+            if (row.getReorderLevel() == null || row.getReorderLevel() < 0) {
+                return "Reorder level must be zero or more";
+            }
+            if (row.getExpiryDate() == null) {
+                return "Expiry date is required";
+            }
+            if (row.getSupplierId() == null && (row.getSupplierName() == null || row.getSupplierName().isBlank())) {
+                return "Supplier id or name is required";
+            }
+            return null;
+        }
+    }
+    
+    // Fits the medicines price columns: precision 10, scale 2
+    private static boolean isPrice(BigDecimal value) {
+        return value != null && value.signum() >= 0 && value.scale() <= 2 && value.precision() - value.scale() <= 8;
+    }
+    
+    // Minimal RFC 4180 reader: quoted fields may contain commas, doubled quotes and line breaks
+    private static class CsvReader {
+        private final BufferedReader reader;
+        private boolean finished;
+        
+        private CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+        
+        private List<String> next() throws IOException {
+            if (finished) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            finished = true;
+            if (!any) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
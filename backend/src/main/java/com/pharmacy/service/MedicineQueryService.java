@@ -0,0 +1,122 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.CursorPage;
+import com.pharmacy.dto.MedicineDTO;
+import com.pharmacy.dto.MedicineFilter;
+import com.pharmacy.dto.PagedResult;
+import com.pharmacy.model.Medicine;
+import com.pharmacy.model.Supplier;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class MedicineQueryService {
+    
+    private final EntityManager entityManager;
+    
+    // Builds one SQL statement from whichever filters are set, so each combination can use
+    // the medicine indexes; rows come back as DTOs and the total comes from a count query.
+    @Transactional(readOnly = true)
+    public PagedResult<MedicineDTO> query(MedicineFilter filter) {
+        int size = CursorPage.clampSize(filter.getSize());
+        int page = filter.getPage() != null && filter.getPage() > 0 ? filter.getPage() : 0;
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        
+        CriteriaQuery<MedicineDTO> select = cb.createQuery(MedicineDTO.class);
+        Root<Medicine> medicine = select.from(Medicine.class);
+        Join<Medicine, Supplier> supplier = medicine.join("supplier");
+        select.select(cb.construct(MedicineDTO.class,
+                        medicine.get("medicineId"), medicine.get("name"), medicine.get("category"),
+                        medicine.get("costPrice"), medicine.get("sellingPrice"), medicine.get("quantity"),
+                        medicine.get("expiryDate"), medicine.get("reorderLevel"),
+                        supplier.get("supplierId"), supplier.get("name"), medicine.get("barcode"),
+                        medicine.get("version")))
+                .where(predicates(cb, medicine, filter))
+                .orderBy(ordering(cb, medicine, filter));
+        List<MedicineDTO> items = entityManager.createQuery(select)
+                .setFirstResult(page * size)
+                .setMaxResults(size)
+                .getResultList();
+        
+        long total;
+        if (page == 0 && items.size() < size) {
+            total = items.size();
+        } else {
+            CriteriaQuery<Long> count = cb.createQuery(Long.class);
+            Root<Medicine> counted = count.from(Medicine.class);
+            count.select(cb.count(counted)).where(predicates(cb, counted, filter));
+            total = entityManager.createQuery(count).getSingleResult();
+        }
+        return new PagedResult<>(items, page, size, total, (int) ((total + size - 1) / size));
+    }
+    
+    private Predicate[] predicates(CriteriaBuilder cb, Root<Medicine> medicine, MedicineFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getName() != null && !filter.getName().isBlank()) {
+            // Case-insensitive "starts with", matching how cashiers type names
+            predicates.add(cb.like(medicine.<String>get("nameKey"),
+                    escapeLike(Medicine.nameKey(filter.getName().trim())) + "%", '\\'));
+        }
+        if (filter.getCategory() != null && !filter.getCategory().isBlank()) {
+            predicates.add(cb.equal(medicine.get("category"), filter.getCategory().trim()));
+        }
+        if (filter.getSupplierId() != null) {
+            predicates.add(cb.equal(medicine.get("supplier").get("supplierId"), filter.getSupplierId()));
+        }
+        if (filter.getMinQuantity() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(medicine.<Integer>get("quantity"), filter.getMinQuantity()));
+        }
+        if (filter.getMaxQuantity() != null) {
+            predicates.add(cb.lessThanOrEqualTo(medicine.<Integer>get("quantity"), filter.getMaxQuantity()));
+        }
+        if (Boolean.TRUE.equals(filter.getLowStock())) {
+            predicates.add(cb.isTrue(medicine.get("lowStock")));
+        }
+        if (filter.getExpiryFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(medicine.<LocalDate>get("expiryDate"), filter.getExpiryFrom()));
+        }
+        if (filter.getExpiryTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(medicine.<LocalDate>get("expiryDate"), filter.getExpiryTo()));
+        }
+        if (filter.getExpiringWithinDays() != null) {
+            if (filter.getExpiringWithinDays() < 0) {
+                throw new RuntimeException("expiringWithinDays must not be negative");
+            }
+            LocalDate today = LocalDate.now();
+            predicates.add(cb.between(medicine.<LocalDate>get("expiryDate"), today, today.plusDays(filter.getExpiringWithinDays())));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+    
+    private List<Order> ordering(CriteriaBuilder cb, Root<Medicine> medicine, MedicineFilter filter) {
+        String sort = filter.getSort() != null ? filter.getSort().trim() : "name";
+        Expression<?> key = switch (sort) {
+            case "name", "category", "quantity", "expiryDate", "sellingPrice", "costPrice", "reorderLevel" -> medicine.get(sort);
+            case "margin" -> cb.diff(medicine.<BigDecimal>get("sellingPrice"), medicine.<BigDecimal>get("costPrice"));
+            default -> throw new RuntimeException("Unsupported sort: " + sort);
+        };
+        boolean descending = "desc".equalsIgnoreCase(filter.getDirection());
+        // The id tie-breaker keeps pages stable when many rows share the sort value
+        return List.of(descending ? cb.desc(key) : cb.asc(key),
+                descending ? cb.desc(medicine.get("medicineId")) : cb.asc(medicine.get("medicineId")));
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,267 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.MedicineSearchResult;
+import com.pharmacy.event.MedicineChangedEvent;
+import com.pharmacy.repository.MedicineRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory typeahead index over medicine names and categories. Word prefixes are
+ * looked up in a sorted token map; when prefixes do not fill the page, name trigrams
+ * give typo-tolerant matches. Lookups never touch the database; the index is loaded
+ * on startup and patched after each committed catalog change.
+ */
+@Service
+public class MedicineSearchService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MedicineSearchService.class);
+    private static final int MAX_RESULTS = 50;
+    private static final double MIN_FUZZY_SIMILARITY = 0.3;
+    
+    private final MedicineRepository medicineRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> nameTokens = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> categoryTokens = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<Long>> nameTrigrams = new ConcurrentHashMap<>();
+    
+    public MedicineSearchService(MedicineRepository medicineRepository, PlatformTransactionManager transactionManager) {
+        this.medicineRepository = medicineRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+    }
+    
+    public List<MedicineSearchResult> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int size = Math.max(1, Math.min(limit, MAX_RESULTS));
+        String normalizedQuery = String.join(" ", queryTokens);
+        
+        // Every query word has to prefix-match a name or category word
+        Map<Long, Double> scores = null;
+        for (String token : queryTokens) {
+            Map<Long, Double> tokenScores = new HashMap<>();
+            collectPrefixMatches(nameTokens, token, 2.0, 3.0, tokenScores);
+            collectPrefixMatches(categoryTokens, token, 1.0, 1.0, tokenScores);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                Map<Long, Double> previous = scores;
+                scores = new HashMap<>();
+                for (Map.Entry<Long, Double> match : tokenScores.entrySet()) {
+                    Double earlier = previous.get(match.getKey());
+                    if (earlier != null) {
+                        scores.put(match.getKey(), earlier + match.getValue());
+                    }
+                }
+            }
+        }
+        
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(size + 1, Candidate.WORST_FIRST);
+        for (Map.Entry<Long, Double> match : scores.entrySet()) {
+            Entry entry = entries.get(match.getKey());
+            if (entry != null) {
+                double bonus = entry.normalizedName.startsWith(normalizedQuery) ? 3.0 : 0.0;
+                offer(heap, new Candidate(entry, match.getValue() + bonus), size);
+            }
+        }
+        // Prefix matches always outrank fuzzy ones, whose scores stay below 1
+        if (heap.size() < size) {
+            fuzzyMatches(normalizedQuery, scores.keySet())
+                    .forEach((id, similarity) -> {
+                        Entry entry = entries.get(id);
+                        if (entry != null) {
+                            offer(heap, new Candidate(entry, similarity), size);
+                        }
+                    });
+        }
+        
+        List<Candidate> ranked = new ArrayList<>(heap);
+        ranked.sort(Candidate.WORST_FIRST.reversed());
+        List<MedicineSearchResult> results = new ArrayList<>(ranked.size());
+        for (Candidate candidate : ranked) {
+            Entry entry = candidate.entry;
+            results.add(new MedicineSearchResult(entry.medicineId, entry.name, entry.category, entry.sellingPrice,
+                    Math.round(candidate.score * 1000) / 1000.0));
+        }
+        return results;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> rows = transactionTemplate.execute(status -> medicineRepository.findSearchRows());
+        synchronized (this) {
+            entries.clear();
+            nameTokens.clear();
+            categoryTokens.clear();
+            nameTrigrams.clear();
+            rows.forEach(this::index);
+        }
+        logger.info("Medicine search index built for {} medicines", rows.size());
+    }
+    
+    // Stock-only changes leave names, categories and prices untouched
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMedicineChanged(MedicineChangedEvent event) {
+        if (event.isStockOnly()) {
+            return;
+        }
+        if (event.isAll()) {
+            rebuild();
+            return;
+        }
+        Long medicineId = event.getMedicineId();
+        List<Object[]> rows = transactionTemplate.execute(status -> medicineRepository.findSearchRowById(medicineId));
+        synchronized (this) {
+            unindex(medicineId);
+            rows.forEach(this::index);
+        }
+    }
+    
+    private void collectPrefixMatches(ConcurrentSkipListMap<String, Set<Long>> tokens, String prefix,
+                                      double prefixScore, double exactScore, Map<Long, Double> scores) {
+        for (Map.Entry<String, Set<Long>> token : tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+            double score = token.getKey().equals(prefix) ? exactScore : prefixScore;
+            for (Long id : token.getValue()) {
+                scores.merge(id, score, Math::max);
+            }
+        }
+    }
+    
+    // Dice similarity on name trigrams, skipping medicines already matched by prefix
+    private Map<Long, Double> fuzzyMatches(String normalizedQuery, Set<Long> exclude) {
+        Set<String> queryTrigrams = trigrams(normalizedQuery);
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<Long> ids = nameTrigrams.get(trigram);
+            if (ids != null) {
+                for (Long id : ids) {
+                    if (!exclude.contains(id)) {
+                        shared.merge(id, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        Map<Long, Double> matches = new HashMap<>();
+        shared.forEach((id, count) -> {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                double similarity = 2.0 * count / (queryTrigrams.size() + entry.trigramCount);
+                if (similarity >= MIN_FUZZY_SIMILARITY) {
+                    matches.put(id, Math.min(similarity, 0.999));
+                }
+            }
+        });
+        return matches;
+    }
+    
+    private void index(Object[] row) {
+        Entry entry = new Entry((Long) row[0], (String) row[1], (String) row[2], (BigDecimal) row[3]);
+        entries.put(entry.medicineId, entry);
+        tokenize(entry.name).forEach(token -> add(nameTokens, token, entry.medicineId));
+        tokenize(entry.category).forEach(token -> add(categoryTokens, token, entry.medicineId));
+        trigrams(entry.normalizedName).forEach(trigram -> add(nameTrigrams, trigram, entry.medicineId));
+    }
+    
+    private void unindex(Long medicineId) {
+        Entry entry = entries.remove(medicineId);
+        if (entry == null) {
+            return;
+        }
+        tokenize(entry.name).forEach(token -> remove(nameTokens, token, medicineId));
+        tokenize(entry.category).forEach(token -> remove(categoryTokens, token, medicineId));
+        trigrams(entry.normalizedName).forEach(trigram -> remove(nameTrigrams, trigram, medicineId));
+    }
+    
+    private static void add(Map<String, Set<Long>> index, String key, Long medicineId) {
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(medicineId);
+    }
+    
+    private static void remove(Map<String, Set<Long>> index, String key, Long medicineId) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(medicineId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+    
+    private static void offer(PriorityQueue<Candidate> heap, Candidate candidate, int size) {
+        heap.offer(candidate);
+        if (heap.size() > size) {
+            heap.poll();
+        }
+    }
+    
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    private static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        String padded = "  " + normalized + " ";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+    
+    private static class Entry {
+        private final Long medicineId;
+        private final String name;
+        private final String category;
+        private final BigDecimal sellingPrice;
+        private final String normalizedName;
+        private final int trigramCount;
+        
+        private Entry(Long medicineId, String name, String category, BigDecimal sellingPrice) {
+            this.medicineId = medicineId;
+            this.name = name;
+            this.category = category;
+            this.sellingPrice = sellingPrice;
+            this.normalizedName = String.join(" ", tokenize(name));
+            this.trigramCount = trigrams(normalizedName).size();
+        }
+    }
+    
+    private record Candidate(Entry entry, double score) {
+        // Lower score first; among equals the longer, then alphabetically later name is weaker
+        private static final Comparator<Candidate> WORST_FIRST = Comparator
+                .comparingDouble(Candidate::score)
+                .thenComparing(c -> c.entry.name.length(), Comparator.reverseOrder())
+                .thenComparing(c -> c.entry.name, Comparator.reverseOrder());
+    }
+}
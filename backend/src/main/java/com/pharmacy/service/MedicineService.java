@@ -1,15 +1,24 @@
 package com.pharmacy.service;
 
+import com.pharmacy.cache.MedicineCatalogCache;
+import com.pharmacy.dto.CursorPage;
 import com.pharmacy.dto.MedicineDTO;
+import com.pharmacy.event.MedicineChangedEvent;
+import com.pharmacy.exception.ConflictException;
 import com.pharmacy.model.Medicine;
 import com.pharmacy.model.Supplier;
 import com.pharmacy.repository.MedicineRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -17,65 +26,158 @@ public class MedicineService {
     
     private final MedicineRepository medicineRepository;
     private final SupplierService supplierService;
+    private final SalesRollupService salesRollupService;
+    private final StockLotService stockLotService;
+    private final CatalogRevisionService catalogRevisionService;
+    private final MedicineBarcodeService medicineBarcodeService;
+    private final MedicineCatalogCache catalogCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
     
+    // Cached listing for display; stock checks read quantities from the repository
     public List<MedicineDTO> getAllMedicines() {
-        return medicineRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return catalogCache.getAll(medicineRepository::findAllDTOs, medicineRepository::findDTOsByIds);
+    }
+    
+    public CursorPage<MedicineDTO> getMedicinesPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        Long after = CursorPage.decodeCursor(cursor);
+        List<MedicineDTO> rows = medicineRepository.findDTOsAfter(
+                after != null ? after : 0L, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, MedicineDTO::getMedicineId, Function.identity());
     }
     
     public MedicineDTO getMedicineById(Long id) {
-        Medicine medicine = medicineRepository.findById(id)
+        return catalogCache.getById(id, () -> medicineRepository.findDTOById(id))
                 .orElseThrow(() -> new RuntimeException("Medicine not found"));
-        return convertToDTO(medicine);
     }
     
+    public MedicineDTO getMedicineByBarcode(String barcode) {
+        Long id = medicineBarcodeService.findMedicineId(barcode)
+                .orElseThrow(() -> new RuntimeException("No medicine with barcode " + barcode));
+        return getMedicineById(id);
+    }
+    
+    @Transactional
     public MedicineDTO createMedicine(MedicineDTO medicineDTO) {
         Medicine medicine = convertToEntity(medicineDTO);
+        medicine.setRevision(catalogRevisionService.next());
         Medicine savedMedicine = medicineRepository.save(medicine);
+        if (savedMedicine.getQuantity() != null && savedMedicine.getQuantity() > 0) {
+            stockLotService.receive(savedMedicine.getMedicineId(), null, savedMedicine.getQuantity(), savedMedicine.getExpiryDate());
+        }
+        eventPublisher.publishEvent(new MedicineChangedEvent(savedMedicine.getMedicineId()));
         return convertToDTO(savedMedicine);
     }
     
+    // An edit that names the version it started from is refused once the row has moved on, sales
+    // included. Without a version the other fields go onto the current row, retried if a sale lands
+    // in between, but a quantity change is refused so an old form can never put sold stock back.
     public MedicineDTO updateMedicine(Long id, MedicineDTO medicineDTO) {
+        int attempts = medicineDTO.getVersion() == null ? OptimisticRetry.MAX_ATTEMPTS : 1;
+        try {
+            return OptimisticRetry.run(attempts, () -> transactionTemplate.execute(status -> applyUpdate(id, medicineDTO)));
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Medicine was changed by someone else", medicineRepository.findDTOById(id)
+                    .orElseThrow(() -> new RuntimeException("Medicine not found")));
+        }
+    }
+    
+    private MedicineDTO applyUpdate(Long id, MedicineDTO medicineDTO) {
         Medicine existingMedicine = medicineRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Medicine not found"));
+        if (medicineDTO.getVersion() != null && !medicineDTO.getVersion().equals(existingMedicine.getVersion())) {
+            throw new ConflictException("Medicine was changed by someone else", convertToDTO(existingMedicine));
+        }
+        if (medicineDTO.getVersion() == null && medicineDTO.getQuantity() != null
+                && !medicineDTO.getQuantity().equals(existingMedicine.getQuantity())) {
+            throw new ConflictException("Changing the quantity needs the version the edit started from",
+                    convertToDTO(existingMedicine));
+        }
         
+        // An edited quantity is a stock count: extra units become a lot, missing units leave the oldest
+        int quantityChange = medicineDTO.getQuantity() != null ? medicineDTO.getQuantity() - existingMedicine.getQuantity() : 0;
+        if (quantityChange > 0) {
+            stockLotService.receive(id, null, quantityChange, medicineDTO.getExpiryDate());
+        } else if (quantityChange < 0) {
+            stockLotService.consume(id, -quantityChange);
+        }
         existingMedicine.setName(medicineDTO.getName());
         existingMedicine.setCategory(medicineDTO.getCategory());
         existingMedicine.setCostPrice(medicineDTO.getCostPrice());
         existingMedicine.setSellingPrice(medicineDTO.getSellingPrice());
-        existingMedicine.setQuantity(medicineDTO.getQuantity());
+        // An omitted quantity leaves the stock as it is
+        if (medicineDTO.getQuantity() != null) {
+            existingMedicine.setQuantity(medicineDTO.getQuantity());
+        }
         existingMedicine.setExpiryDate(medicineDTO.getExpiryDate());
         existingMedicine.setReorderLevel(medicineDTO.getReorderLevel());
+        // Left alone when omitted, so clients that predate barcodes do not wipe them; blank clears it
+        if (medicineDTO.getBarcode() != null) {
+            existingMedicine.setBarcode(barcodeFor(medicineDTO.getBarcode(), id));
+        }
         
         if (medicineDTO.getSupplierId() != null) {
             Supplier supplier = supplierService.getSupplierById(medicineDTO.getSupplierId());
             existingMedicine.setSupplier(supplier);
         }
         
-        Medicine updatedMedicine = medicineRepository.save(existingMedicine);
+        existingMedicine.setRevision(catalogRevisionService.next());
+        // Flushed here so the version check runs now and the response carries the new version
+        Medicine updatedMedicine = medicineRepository.saveAndFlush(existingMedicine);
+        eventPublisher.publishEvent(new MedicineChangedEvent(id));
         return convertToDTO(updatedMedicine);
     }
     
+    @Transactional
     public void deleteMedicine(Long id) {
+        // Deleting a medicine cascades to its sales, so its rollups go with them
         medicineRepository.deleteById(id);
+        salesRollupService.deleteForMedicine(id);
+        stockLotService.deleteForMedicine(id);
+        catalogRevisionService.recordDeletion(id);
+        eventPublisher.publishEvent(new MedicineChangedEvent(id));
     }
     
+    @Transactional
     public void updateStock(Long medicineId, int quantity) {
-        Medicine medicine = medicineRepository.findById(medicineId)
-                .orElseThrow(() -> new RuntimeException("Medicine not found"));
-        medicine.setQuantity(medicine.getQuantity() + quantity);
-        medicineRepository.save(medicine);
+        int updated = quantity >= 0
+                ? medicineRepository.incrementStock(medicineId, quantity, catalogRevisionService.next())
+                : medicineRepository.decrementStock(medicineId, -quantity, catalogRevisionService.next());
+        if (updated == 0) {
+            if (!medicineRepository.existsById(medicineId)) {
+                throw new RuntimeException("Medicine not found");
+            }
+            throw new RuntimeException("Insufficient stock. Available: " + medicineRepository.findQuantityById(medicineId));
+        }
+        if (quantity > 0) {
+            stockLotService.receive(medicineId, null, quantity, medicineRepository.findExpiryDateById(medicineId));
+        } else {
+            stockLotService.consume(medicineId, -quantity);
+        }
+        eventPublisher.publishEvent(MedicineChangedEvent.stock(medicineId));
     }
     
-    public List<Medicine> getExpiredMedicines() {
-        return medicineRepository.findByExpiryDateBefore(LocalDate.now());
+    public Map<String, Object> getCacheStats() {
+        return catalogCache.getStats();
     }
     
     public List<Medicine> getLowStockMedicines() {
         return medicineRepository.findLowStockMedicines();
     }
     
+    public CursorPage<MedicineDTO> getLowStockPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        Long after = CursorPage.decodeCursor(cursor);
+        List<MedicineDTO> rows = medicineRepository.findLowStockDTOsAfter(
+                after != null ? after : 0L, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, MedicineDTO::getMedicineId, Function.identity());
+    }
+    
+    public long countLowStock() {
+        return medicineRepository.countByLowStockTrue();
+    }
+    
     private MedicineDTO convertToDTO(Medicine medicine) {
         MedicineDTO dto = new MedicineDTO();
         dto.setMedicineId(medicine.getMedicineId());
@@ -88,6 +190,8 @@ public class MedicineService {
         dto.setReorderLevel(medicine.getReorderLevel());
         dto.setSupplierId(medicine.getSupplier().getSupplierId());
         dto.setSupplierName(medicine.getSupplier().getName());
+        dto.setBarcode(medicine.getBarcode());
+        dto.setVersion(medicine.getVersion());
         return dto;
     }
     
@@ -100,10 +204,20 @@ public class MedicineService {
         medicine.setQuantity(dto.getQuantity());
         medicine.setExpiryDate(dto.getExpiryDate());
         medicine.setReorderLevel(dto.getReorderLevel());
+        medicine.setBarcode(barcodeFor(dto.getBarcode(), null));
         
         Supplier supplier = supplierService.getSupplierById(dto.getSupplierId());
         medicine.setSupplier(supplier);
         
         return medicine;
     }
+    
+    private String barcodeFor(String barcode, Long medicineId) {
+        if (barcode == null || barcode.isBlank()) {
+            return null;
+        }
+        String gtin = Gtin.normalize(barcode);
+        medicineBarcodeService.checkAvailable(gtin, medicineId);
+        return gtin;
+    }
 }
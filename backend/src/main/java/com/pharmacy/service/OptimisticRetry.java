@@ -0,0 +1,26 @@
+package com.pharmacy.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.function.Supplier;
+
+// Re-runs a read-modify-write transaction whose version check lost to a concurrent writer
+final class OptimisticRetry {
+    
+    static final int MAX_ATTEMPTS = 3;
+    
+    private OptimisticRetry() {
+    }
+    
+    static <T> T run(int maxAttempts, Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (i >= maxAttempts) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -1,18 +1,22 @@
 package com.pharmacy.service;
 
+import com.pharmacy.dto.CursorPage;
 import com.pharmacy.dto.PurchaseDTO;
+import com.pharmacy.event.MedicineChangedEvent;
 import com.pharmacy.model.Medicine;
 import com.pharmacy.model.Purchase;
 import com.pharmacy.model.Supplier;
 import com.pharmacy.repository.MedicineRepository;
 import com.pharmacy.repository.PurchaseRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -21,9 +25,16 @@ public class PurchaseService {
     private final PurchaseRepository purchaseRepository;
     private final MedicineRepository medicineRepository;
     private final SupplierService supplierService;
+    private final StockLotService stockLotService;
+    private final CatalogRevisionService catalogRevisionService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public PurchaseDTO createPurchase(PurchaseDTO purchaseDTO) {
+        if (purchaseDTO.getQuantity() == null || purchaseDTO.getQuantity() <= 0) {
+            throw new RuntimeException("Quantity must be positive");
+        }
+        
         Medicine medicine = medicineRepository.findById(purchaseDTO.getMedicineId())
                 .orElseThrow(() -> new RuntimeException("Medicine not found"));
         
@@ -36,26 +47,37 @@ public class PurchaseService {
         purchase.setTotalCost(purchaseDTO.getTotalCost());
         purchase.setPurchaseDate(purchaseDTO.getPurchaseDate() != null ? 
                 purchaseDTO.getPurchaseDate() : LocalDateTime.now());
+        // Without a lot expiry the delivery is assumed to match the medicine's
+        purchase.setExpiryDate(purchaseDTO.getExpiryDate() != null ?
+                purchaseDTO.getExpiryDate() : medicine.getExpiryDate());
         
         Purchase savedPurchase = purchaseRepository.save(purchase);
+        stockLotService.receive(medicine.getMedicineId(), savedPurchase.getPurchaseId(),
+                purchaseDTO.getQuantity(), savedPurchase.getExpiryDate());
         
-        // Update medicine stock
-        medicine.setQuantity(medicine.getQuantity() + purchaseDTO.getQuantity());
-        medicineRepository.save(medicine);
+        // Update medicine stock without overwriting concurrent sales
+        medicineRepository.incrementStock(medicine.getMedicineId(), purchaseDTO.getQuantity(),
+                catalogRevisionService.next());
+        eventPublisher.publishEvent(MedicineChangedEvent.stock(medicine.getMedicineId()));
         
         return convertToDTO(savedPurchase);
     }
     
     public List<PurchaseDTO> getAllPurchases() {
-        return purchaseRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return purchaseRepository.findAllDTOs();
+    }
+    
+    // Newest first; the cursor is the last purchase id of the previous page
+    public CursorPage<PurchaseDTO> getPurchasesPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        Long after = CursorPage.decodeCursor(cursor);
+        List<PurchaseDTO> rows = purchaseRepository.findDTOsBefore(
+                after != null ? after : Long.MAX_VALUE, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, PurchaseDTO::getPurchaseId, Function.identity());
     }
     
     public List<PurchaseDTO> getPurchasesByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return purchaseRepository.findByPurchaseDateBetween(startDate, endDate).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return purchaseRepository.findDTOsByPurchaseDateBetween(startDate, endDate);
     }
     
     private PurchaseDTO convertToDTO(Purchase purchase) {
@@ -68,6 +90,7 @@ public class PurchaseService {
         dto.setQuantity(purchase.getQuantity());
         dto.setTotalCost(purchase.getTotalCost());
         dto.setPurchaseDate(purchase.getPurchaseDate());
+        dto.setExpiryDate(purchase.getExpiryDate());
         return dto;
     }
 }
@@ -0,0 +1,285 @@
+package com.pharmacy.service;
+
+import com.pharmacy.cache.TtlCache;
+import com.pharmacy.dto.ReportJobDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs heavy reports off the request threads. A submitted job waits in a bounded priority
+ * queue for one of a fixed set of worker threads, and clients poll it by id. Finished results
+ * are kept per report and parameters together with the catalog revision they were built at;
+ * every stock, sale, purchase and catalog write moves that revision, so a result is reused
+ * only until the data under it changes. Identical submissions share a running job.
+ */
+@Service
+public class ReportJobService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+    
+    private final ReportService reportService;
+    private final DemandForecastService demandForecastService;
+    private final SalesRollupService salesRollupService;
+    private final CatalogRevisionService catalogRevisionService;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final TtlCache<String, Job> jobs;
+    private final TtlCache<String, Job> latestByKey;
+    private final AtomicLong sequence = new AtomicLong();
+    
+    public enum Type {
+        STOCK, EXPIRY, TOP_SELLERS, SALES_SUMMARY, FORECAST;
+        
+        public static Type from(String value) {
+            try {
+                return Type.valueOf(value.trim().toUpperCase().replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported report type: " + value);
+            }
+        }
+    }
+    
+    public enum Priority {
+        HIGH, NORMAL, LOW;
+        
+        public static Priority from(String value) {
+            if (value == null || value.isBlank()) {
+                return NORMAL;
+            }
+            try {
+                return Priority.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported priority: " + value + " (high, normal or low)");
+            }
+        }
+    }
+    
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+    
+    public ReportJobService(ReportService reportService,
+                            DemandForecastService demandForecastService,
+                            SalesRollupService salesRollupService,
+                            CatalogRevisionService catalogRevisionService,
+                            @Value("${pharmacy.report-jobs.threads:2}") int threads,
+                            @Value("${pharmacy.report-jobs.queue-capacity:50}") int queueCapacity,
+                            @Value("${pharmacy.report-jobs.max-jobs:500}") int maxJobs,
+                            @Value("${pharmacy.report-jobs.ttl-minutes:30}") long ttlMinutes) {
+        this.reportService = reportService;
+        this.demandForecastService = demandForecastService;
+        this.salesRollupService = salesRollupService;
+        this.catalogRevisionService = catalogRevisionService;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.jobs = new TtlCache<>(maxJobs, Duration.ofMinutes(ttlMinutes));
+        this.latestByKey = new TtlCache<>(maxJobs, Duration.ofMinutes(ttlMinutes));
+        int workers = Math.max(1, threads);
+        AtomicInteger threadCount = new AtomicInteger();
+        // Only execute() is used, so the queue holds Work items and orders them by priority
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    // Parameters are checked here so a bad request fails straight away instead of as a job
+    public synchronized ReportJobDTO submit(Type type, Priority priority, Map<String, String> params) {
+        Map<String, String> canonical = new TreeMap<>();
+        Supplier<Object> report = prepare(type, params, canonical);
+        long revision = catalogRevisionService.visibleRevision();
+        // Expiry and forecast results also depend on the day they were built
+        String key = type + ":" + canonical + ":" + LocalDate.now();
+        
+        Job previous = latestByKey.get(key);
+        if (previous != null && previous.revision == revision && previous.status != Status.FAILED) {
+            // Touched again so the job stays pollable as long as its result is being reused
+            jobs.put(previous.jobId, previous);
+            return toDTO(previous, true);
+        }
+        if (executor.getQueue().size() >= queueCapacity) {
+            throw new RuntimeException("Report queue is full; try again shortly");
+        }
+        
+        Job job = new Job(UUID.randomUUID().toString(), type, priority, revision, report);
+        jobs.put(job.jobId, job);
+        latestByKey.put(key, job);
+        executor.execute(new Work(job, sequence.incrementAndGet()));
+        return toDTO(job, false);
+    }
+    
+    public ReportJobDTO getJob(String jobId) {
+        return toDTO(find(jobId), false);
+    }
+    
+    public Object getResult(String jobId) {
+        Job job = find(jobId);
+        if (job.status == Status.FAILED) {
+            throw new RuntimeException("Report job " + jobId + " failed: " + job.error);
+        }
+        if (job.status != Status.DONE) {
+            throw new RuntimeException("Report job " + jobId + " is not finished yet");
+        }
+        return job.result;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    private Job find(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Report job not found or expired: " + jobId);
+        }
+        return job;
+    }
+    
+    private Supplier<Object> prepare(Type type, Map<String, String> params, Map<String, String> canonical) {
+        return switch (type) {
+            case STOCK -> reportService::getStockReport;
+            case EXPIRY -> reportService::getExpiryReport;
+            case TOP_SELLERS -> {
+                LocalDate from = date(params, "from");
+                LocalDate to = date(params, "to");
+                ReportService.Metric metric = ReportService.Metric.from(params.getOrDefault("metric", "units"));
+                int limit = number(params, "limit", 20);
+                String order = params.getOrDefault("order", "top");
+                boolean slowest;
+                if ("slow".equalsIgnoreCase(order)) {
+                    slowest = true;
+                } else if ("top".equalsIgnoreCase(order)) {
+                    slowest = false;
+                } else {
+                    throw new RuntimeException("Unsupported order: " + order);
+                }
+                canonical.put("from", from.toString());
+                canonical.put("to", to.toString());
+                canonical.put("metric", metric.name());
+                canonical.put("limit", Integer.toString(limit));
+                canonical.put("slowest", Boolean.toString(slowest));
+                yield () -> reportService.getTopSellers(from.atStartOfDay(), endOfDay(to), metric, limit, slowest);
+            }
+            case SALES_SUMMARY -> {
+                LocalDate from = date(params, "from");
+                LocalDate to = date(params, "to");
+                canonical.put("from", from.toString());
+                canonical.put("to", to.toString());
+                yield () -> salesRollupService.summarize(from.atStartOfDay(), endOfDay(to));
+            }
+            case FORECAST -> {
+                boolean reorderOnly = Boolean.parseBoolean(params.getOrDefault("reorderOnly", "false"));
+                canonical.put("reorderOnly", Boolean.toString(reorderOnly));
+                yield () -> demandForecastService.getForecast(reorderOnly);
+            }
+        };
+    }
+    
+    private static LocalDate date(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new RuntimeException("Parameter '" + name + "' is required (yyyy-MM-dd)");
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException("Invalid date for '" + name + "': " + value);
+        }
+    }
+    
+    private static int number(Map<String, String> params, String name, int defaultValue) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid number for '" + name + "': " + value);
+        }
+    }
+    
+    // Inclusive end of the last day, as the sales services expect
+    private static LocalDateTime endOfDay(LocalDate date) {
+        return date.plusDays(1).atStartOfDay().minusNanos(1);
+    }
+    
+    private static ReportJobDTO toDTO(Job job, boolean cached) {
+        return new ReportJobDTO(job.jobId, job.type.name(), job.priority.name(), job.status.name(), job.revision,
+                cached, job.submittedAt, job.startedAt, job.finishedAt, job.error);
+    }
+    
+    private static class Job {
+        private final String jobId;
+        private final Type type;
+        private final Priority priority;
+        private final long revision;
+        private final Supplier<Object> report;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile Object result;
+        private volatile String error;
+        
+        private Job(String jobId, Type type, Priority priority, long revision, Supplier<Object> report) {
+            this.jobId = jobId;
+            this.type = type;
+            this.priority = priority;
+            this.revision = revision;
+            this.report = report;
+        }
+    }
+    
+    // Higher priority first, then in submission order
+    private static class Work implements Runnable, Comparable<Work> {
+        private final Job job;
+        private final long sequence;
+        
+        private Work(Job job, long sequence) {
+            this.job = job;
+            this.sequence = sequence;
+        }
+        
+        @Override
+        public void run() {
+            job.startedAt = LocalDateTime.now();
+            job.status = Status.RUNNING;
+            try {
+                job.result = job.report.get();
+                job.finishedAt = LocalDateTime.now();
+                job.status = Status.DONE;
+            } catch (RuntimeException e) {
+                logger.warn("Report job {} ({}) failed", job.jobId, job.type, e);
+                job.error = e.getMessage();
+                job.finishedAt = LocalDateTime.now();
+                job.status = Status.FAILED;
+            }
+        }
+        
+        @Override
+        public int compareTo(Work other) {
+            int byPriority = job.priority.compareTo(other.job.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
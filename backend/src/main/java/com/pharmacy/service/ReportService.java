@@ -1,16 +1,34 @@
 package com.pharmacy.service;
 
+import com.pharmacy.dto.CursorPage;
+import com.pharmacy.dto.ExpiryItemDTO;
+import com.pharmacy.dto.ExpirySummaryDTO;
+import com.pharmacy.dto.PagedResult;
+import com.pharmacy.dto.SalesTotals;
 import com.pharmacy.dto.StockReportDTO;
+import com.pharmacy.dto.TopSellerDTO;
 import com.pharmacy.model.Medicine;
+import com.pharmacy.repository.MedicineRepository;
+import com.pharmacy.repository.StockLotRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 @Service
 @RequiredArgsConstructor
@@ -18,65 +36,201 @@ public class ReportService {
     
     private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
     
+    private static final int MAX_TOP_SELLERS = 500;
+    // The unpaged expiry lists stop here and report the full count; the paged report has no limit
+    public static final int MAX_EXPIRY_LIST = 5000;
+    
     private final MedicineService medicineService;
+    private final MedicineRepository medicineRepository;
+    private final StockLotRepository stockLotRepository;
+    private final SalesRollupService salesRollupService;
+    
+    public enum Metric {
+        UNITS(totals -> BigDecimal.valueOf(totals.getUnits())),
+        REVENUE(SalesTotals::getRevenue),
+        PROFIT(SalesTotals::getProfit);
+        
+        private final Function<SalesTotals, BigDecimal> extractor;
+        
+        Metric(Function<SalesTotals, BigDecimal> extractor) {
+            this.extractor = extractor;
+        }
+        
+        public static Metric from(String value) {
+            try {
+                return Metric.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported metric: " + value);
+            }
+        }
+    }
+    
+    // Non-overlapping bands: already expired, then days 0-30, 31-60 and 61-90 from today
+    public enum ExpiryWindow {
+        EXPIRED(-1, -1),
+        DAYS_30(0, 30),
+        DAYS_60(31, 60),
+        DAYS_90(61, 90);
+        
+        private final int fromDay;
+        private final int toDay;
+        
+        ExpiryWindow(int fromDay, int toDay) {
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+        
+        public static ExpiryWindow from(String value) {
+            return switch (value.trim().toLowerCase()) {
+                case "expired" -> EXPIRED;
+                case "30" -> DAYS_30;
+                case "60" -> DAYS_60;
+                case "90" -> DAYS_90;
+                default -> throw new RuntimeException("Unsupported expiry window: " + value + " (expired, 30, 60 or 90)");
+            };
+        }
+    }
     
+    // Status is worked out in the query, so no entities are loaded
     public List<StockReportDTO> getStockReport() {
-        return medicineService.getAllMedicines().stream()
-                .map(medicine -> {
-                    StockReportDTO report = new StockReportDTO();
-                    report.setMedicineId(medicine.getMedicineId());
-                    report.setName(medicine.getName());
-                    report.setCategory(medicine.getCategory());
-                    report.setQuantity(medicine.getQuantity());
-                    report.setReorderLevel(medicine.getReorderLevel());
-                    report.setCostPrice(medicine.getCostPrice());
-                    report.setSellingPrice(medicine.getSellingPrice());
-                    
-                    if (medicine.getQuantity() == 0) {
-                        report.setStatus("OUT_OF_STOCK");
-                    } else if (medicine.getQuantity() <= medicine.getReorderLevel()) {
-                        report.setStatus("LOW");
-                    } else {
-                        report.setStatus("NORMAL");
-                    }
-                    
-                    return report;
-                })
-                .collect(Collectors.toList());
+        return medicineRepository.findStockReport();
+    }
+    
+    // Totals come from the sales rollups; only the N best (or worst) are kept in a bounded heap.
+    // Slow movers also consider medicines with no sales in the period.
+    public List<TopSellerDTO> getTopSellers(LocalDateTime startDate, LocalDateTime endDate,
+                                            Metric metric, int limit, boolean slowest) {
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("Start date must be before end date");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_TOP_SELLERS));
+        Map<Long, SalesTotals> totals = salesRollupService.summarizeByMedicine(startDate, endDate);
+        
+        Comparator<Map.Entry<Long, SalesTotals>> byMetric = Comparator
+                .comparing((Map.Entry<Long, SalesTotals> e) -> metric.extractor.apply(e.getValue()))
+                .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+        // The heap head is the weakest entry kept so far, evicted when a better one arrives
+        Comparator<Map.Entry<Long, SalesTotals>> weakestFirst = slowest ? byMetric.reversed() : byMetric;
+        PriorityQueue<Map.Entry<Long, SalesTotals>> heap = new PriorityQueue<>(size + 1, weakestFirst);
+        
+        Map<Long, Object[]> summaries = new HashMap<>();
+        if (slowest) {
+            SalesTotals none = new SalesTotals();
+            for (Object[] row : medicineRepository.findAllSummaries()) {
+                Long medicineId = (Long) row[0];
+                summaries.put(medicineId, row);
+                offer(heap, Map.entry(medicineId, totals.getOrDefault(medicineId, none)), size);
+            }
+        } else {
+            totals.entrySet().forEach(entry -> offer(heap, entry, size));
+        }
+        
+        List<Map.Entry<Long, SalesTotals>> ranked = new ArrayList<>(heap);
+        ranked.sort(weakestFirst.reversed());
+        if (!slowest && !ranked.isEmpty()) {
+            medicineRepository.findSummariesByIds(ranked.stream().map(Map.Entry::getKey).toList())
+                    .forEach(row -> summaries.put((Long) row[0], row));
+        }
+        
+        List<TopSellerDTO> result = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, SalesTotals> entry : ranked) {
+            // Rollups outlive deleted medicines only until deleteForMedicine runs; skip any stragglers
+            Object[] summary = summaries.get(entry.getKey());
+            if (summary == null) {
+                continue;
+            }
+            SalesTotals t = entry.getValue();
+            result.add(new TopSellerDTO(result.size() + 1, entry.getKey(), (String) summary[1], (String) summary[2],
+                    t.getUnits(), t.getRevenue(), t.getProfit(), t.getTransactions()));
+        }
+        return result;
+    }
+    
+    private void offer(PriorityQueue<Map.Entry<Long, SalesTotals>> heap, Map.Entry<Long, SalesTotals> entry, int size) {
+        heap.offer(entry);
+        if (heap.size() > size) {
+            heap.poll();
+        }
+    }
+    
+    // The first MAX_EXPIRY_LIST rows as page 0; totalElements is above the item count when the cap cut the list
+    public PagedResult<ExpiryItemDTO> getExpiryReport() {
+        LocalDate today = LocalDate.now();
+        return capped(stockLotRepository.findExpiryItemsBefore(today, PageRequest.of(0, MAX_EXPIRY_LIST + 1)),
+                () -> stockLotRepository.countMedicinesExpiringBefore(today));
+    }
+    
+    // From today up to and including the given day, soonest first
+    public PagedResult<ExpiryItemDTO> getExpiringMedicines(int days) {
+        if (days < 0) {
+            throw new RuntimeException("Days must not be negative");
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate to = today.plusDays(days);
+        return capped(stockLotRepository.findExpiryItemsBetween(today, to, PageRequest.of(0, MAX_EXPIRY_LIST + 1)),
+                () -> stockLotRepository.countMedicinesExpiringBetween(today, to));
+    }
+    
+    // Fetched one past the cap, so the count query only runs when the list really was cut
+    private static PagedResult<ExpiryItemDTO> capped(List<ExpiryItemDTO> items, LongSupplier counter) {
+        long total = items.size();
+        if (items.size() > MAX_EXPIRY_LIST) {
+            items = new ArrayList<>(items.subList(0, MAX_EXPIRY_LIST));
+            total = counter.getAsLong();
+        }
+        return new PagedResult<>(items, 0, MAX_EXPIRY_LIST, total, (int) ((total + MAX_EXPIRY_LIST - 1) / MAX_EXPIRY_LIST));
+    }
+    
+    public PagedResult<ExpiryItemDTO> getExpiryPage(ExpiryWindow window, Integer page, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        int pageNumber = page != null && page > 0 ? page : 0;
+        Pageable pageable = PageRequest.of(pageNumber, pageSize);
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.plusDays(window.fromDay);
+        LocalDate to = today.plusDays(window.toDay);
+        
+        List<ExpiryItemDTO> items = window == ExpiryWindow.EXPIRED
+                ? stockLotRepository.findExpiryItemsBefore(today, pageable)
+                : stockLotRepository.findExpiryItemsBetween(from, to, pageable);
+        long total;
+        if (pageNumber == 0 && items.size() < pageSize) {
+            total = items.size();
+        } else {
+            total = window == ExpiryWindow.EXPIRED
+                    ? stockLotRepository.countMedicinesExpiringBefore(today)
+                    : stockLotRepository.countMedicinesExpiringBetween(from, to);
+        }
+        return new PagedResult<>(items, pageNumber, pageSize, total, (int) ((total + pageSize - 1) / pageSize));
     }
     
-    public List<Medicine> getExpiryReport() {
-        return medicineService.getExpiredMedicines();
+    public ExpirySummaryDTO getExpirySummary() {
+        LocalDate today = LocalDate.now();
+        Object[] counts = stockLotRepository.countExpiryWindows(today, today.plusDays(ExpiryWindow.DAYS_30.toDay),
+                today.plusDays(ExpiryWindow.DAYS_60.toDay), today.plusDays(ExpiryWindow.DAYS_90.toDay)).get(0);
+        return new ExpirySummaryDTO(today, count(counts[0]), count(counts[1]), count(counts[2]), count(counts[3]));
     }
     
-    public List<Medicine> getExpiringMedicines(int days) {
-        LocalDate futureDate = LocalDate.now().plusDays(days);
-        return medicineService.getAllMedicines().stream()
-                .map(dto -> {
-                    Medicine medicine = new Medicine();
-                    medicine.setMedicineId(dto.getMedicineId());
-                    medicine.setName(dto.getName());
-                    medicine.setExpiryDate(dto.getExpiryDate());
-                    return medicine;
-                })
-                .filter(m -> m.getExpiryDate().isBefore(futureDate) && m.getExpiryDate().isAfter(LocalDate.now()))
-                .collect(Collectors.toList());
+    private static long count(Object sum) {
+        return sum != null ? ((Number) sum).longValue() : 0L;
     }
     
     @Scheduled(fixedRate = 86400000) // Run daily
     public void checkExpiryDates() {
-        List<Medicine> expiredMedicines = medicineService.getExpiredMedicines();
-        List<Medicine> expiringMedicines = getExpiringMedicines(30);
+        ExpirySummaryDTO summary = getExpirySummary();
         
-        if (!expiredMedicines.isEmpty()) {
-            logger.warn("Found {} expired medicines", expiredMedicines.size());
-            expiredMedicines.forEach(m -> 
+        if (summary.getExpired() > 0) {
+            logger.warn("Found {} expired medicines", summary.getExpired());
+            PagedResult<ExpiryItemDTO> expired = getExpiryReport();
+            expired.getItems().forEach(m -> 
                 logger.warn("Expired: {} - Expiry Date: {}", m.getName(), m.getExpiryDate())
             );
+            if (expired.getTotalElements() > expired.getItems().size()) {
+                logger.warn("... and {} more expired medicines", expired.getTotalElements() - expired.getItems().size());
+            }
         }
         
-        if (!expiringMedicines.isEmpty()) {
-            logger.info("Found {} medicines expiring in next 30 days", expiringMedicines.size());
+        if (summary.getWithin30Days() > 0) {
+            logger.info("Found {} medicines expiring in next 30 days", summary.getWithin30Days());
         }
     }
     
@@ -1,20 +1,36 @@
 package com.pharmacy.service;
 
+import com.pharmacy.dto.BasketRequest;
+import com.pharmacy.dto.BasketResponse;
+import com.pharmacy.dto.CursorPage;
+import com.pharmacy.dto.LiveSalesSnapshot;
 import com.pharmacy.dto.SaleRequest;
 import com.pharmacy.dto.SaleResponse;
+import com.pharmacy.dto.SalesTotals;
+import com.pharmacy.event.MedicineChangedEvent;
 import com.pharmacy.model.Medicine;
 import com.pharmacy.model.Sale;
 import com.pharmacy.model.User;
 import com.pharmacy.repository.MedicineRepository;
 import com.pharmacy.repository.SaleRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,63 +40,231 @@ public class SaleService {
     private final SaleRepository saleRepository;
     private final MedicineRepository medicineRepository;
     private final UserService userService;
+    private final StockWriteCombiner stockWriteCombiner;
+    private final SalesRollupService salesRollupService;
+    private final LiveSalesCounter liveSalesCounter;
+    private final DemandForecastService demandForecastService;
+    private final StockLotService stockLotService;
+    private final CatalogRevisionService catalogRevisionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     
-    @Transactional
     public SaleResponse createSale(SaleRequest request) {
-        Medicine medicine = medicineRepository.findById(request.getMedicineId())
-                .orElseThrow(() -> new RuntimeException("Medicine not found"));
-        
-        if (medicine.getQuantity() < request.getQuantity()) {
-            throw new RuntimeException("Insufficient stock. Available: " + medicine.getQuantity());
+        if (request.getMedicineId() == null || request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new RuntimeException("Quantity must be positive");
         }
         
         // Get current user email from security context
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
         User user = userService.getUserByEmail(email);
         
-        // Calculate total amount and profit
-        BigDecimal totalAmount = medicine.getSellingPrice().multiply(BigDecimal.valueOf(request.getQuantity()));
-        BigDecimal costAmount = medicine.getCostPrice().multiply(BigDecimal.valueOf(request.getQuantity()));
-        BigDecimal profit = totalAmount.subtract(costAmount);
+        SaleResponse response = checkout(Map.of(request.getMedicineId(), request.getQuantity()), saleDate -> {
+            Medicine medicine = medicineRepository.findById(request.getMedicineId())
+                    .orElseThrow(() -> new RuntimeException("Medicine not found"));
+            
+            Sale sale = buildSale(medicine, user, request.getQuantity(), saleDate);
+            Sale savedSale = saleRepository.save(sale);
+            salesRollupService.record(savedSale);
+            stockLotService.allocate(savedSale);
+            
+            return convertToResponse(savedSale);
+        });
+        recordLive(response);
+        demandForecastService.record(request.getMedicineId(), request.getQuantity(), response.getSaleDate());
+        return response;
+    }
+    
+    public BasketResponse createBasketSale(BasketRequest request) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new RuntimeException("Basket is empty");
+        }
         
-        // Create sale
-        Sale sale = new Sale();
-        sale.setMedicine(medicine);
-        sale.setUser(user);
-        sale.setQuantity(request.getQuantity());
-        sale.setTotalAmount(totalAmount);
-        sale.setProfit(profit);
-        sale.setSaleDate(LocalDateTime.now());
+        // Merge lines for the same medicine so stock is checked against the basket total
+        Map<Long, Integer> requestedQuantities = new LinkedHashMap<>();
+        for (SaleRequest item : request.getItems()) {
+            if (item.getMedicineId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new RuntimeException("Each basket line needs a medicine and a positive quantity");
+            }
+            requestedQuantities.merge(item.getMedicineId(), item.getQuantity(), Integer::sum);
+        }
         
-        Sale savedSale = saleRepository.save(sale);
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userService.getUserByEmail(email);
+        
+        BasketResponse receipt = checkout(requestedQuantities, saleDate -> {
+            Map<Long, Medicine> medicines = medicineRepository.findAllById(requestedQuantities.keySet()).stream()
+                    .collect(Collectors.toMap(Medicine::getMedicineId, Function.identity()));
+            
+            List<Sale> sales = new ArrayList<>();
+            for (SaleRequest item : request.getItems()) {
+                sales.add(buildSale(medicines.get(item.getMedicineId()), user, item.getQuantity(), saleDate));
+            }
+            List<Sale> savedSales = saleRepository.saveAll(sales);
+            savedSales.forEach(salesRollupService::record);
+            savedSales.forEach(stockLotService::allocate);
+            
+            BasketResponse response = new BasketResponse();
+            response.setItems(savedSales.stream()
+                    .map(this::convertToResponse)
+                    .collect(Collectors.toList()));
+            response.setTotalQuantity(requestedQuantities.values().stream().mapToInt(Integer::intValue).sum());
+            response.setTotalAmount(savedSales.stream()
+                    .map(Sale::getTotalAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+            response.setTotalProfit(savedSales.stream()
+                    .map(Sale::getProfit)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+            response.setSaleDate(saleDate);
+            response.setUserName(user.getName());
+            return response;
+        });
+        receipt.getItems().forEach(this::recordLive);
+        requestedQuantities.forEach((medicineId, quantity) ->
+                demandForecastService.record(medicineId, quantity, receipt.getSaleDate()));
+        return receipt;
+    }
+    
+    // Records a compensating sale row and puts the stock back. Repeating the call for the same
+    // sale returns the existing reversal; the unique reversal_of_sale_id settles concurrent calls.
+    public SaleResponse reverseSale(Long saleId, Sale.ReversalType type) {
+        Optional<SaleResponse> existing = saleRepository.findResponseByReversalOfSaleId(saleId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        Sale original = saleRepository.findById(saleId)
+                .orElseThrow(() -> new RuntimeException("Sale not found"));
+        if (original.getReversalOfSaleId() != null) {
+            throw new RuntimeException("A reversal cannot itself be reversed");
+        }
         
-        // Update medicine stock
-        medicine.setQuantity(medicine.getQuantity() - request.getQuantity());
-        medicineRepository.save(medicine);
+        Long medicineId = original.getMedicine().getMedicineId();
+        LocalDateTime reversalDate = LocalDateTime.now();
+        salesRollupService.prepareBuckets(List.of(medicineId), reversalDate);
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userService.getUserByEmail(email);
         
-        return convertToResponse(savedSale);
+        SaleResponse response;
+        try {
+            response = transactionTemplate.execute(status -> {
+                Sale reversal = new Sale();
+                reversal.setMedicine(original.getMedicine());
+                reversal.setUser(user);
+                reversal.setQuantity(-original.getQuantity());
+                reversal.setTotalAmount(original.getTotalAmount().negate());
+                reversal.setProfit(original.getProfit() != null ? original.getProfit().negate() : null);
+                reversal.setSaleDate(reversalDate);
+                reversal.setReversalOfSaleId(original.getSaleId());
+                reversal.setReversalType(type);
+                // Flush first so a concurrent reversal fails here before any stock moves
+                Sale savedReversal = saleRepository.saveAndFlush(reversal);
+                medicineRepository.incrementStock(medicineId, original.getQuantity(), catalogRevisionService.next());
+                stockLotService.restore(original.getSaleId(), medicineId);
+                salesRollupService.record(savedReversal);
+                return convertToResponse(savedReversal);
+            });
+        } catch (DataIntegrityViolationException e) {
+            return saleRepository.findResponseByReversalOfSaleId(saleId).orElseThrow(() -> e);
+        }
+        eventPublisher.publishEvent(MedicineChangedEvent.stock(medicineId));
+        recordLive(response);
+        demandForecastService.record(medicineId, -original.getQuantity(), reversalDate);
+        return response;
     }
     
     public List<SaleResponse> getAllSales() {
-        return saleRepository.findAll().stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return saleRepository.findAllResponses();
+    }
+    
+    // Newest first; the cursor is the last sale id of the previous page
+    public CursorPage<SaleResponse> getSalesPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        Long after = CursorPage.decodeCursor(cursor);
+        List<SaleResponse> rows = saleRepository.findResponsesBefore(
+                after != null ? after : Long.MAX_VALUE, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, SaleResponse::getSaleId, Function.identity());
     }
     
     public List<SaleResponse> getSalesByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return saleRepository.findBySaleDateBetween(startDate, endDate).stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return saleRepository.findResponsesBySaleDateBetween(startDate, endDate);
+    }
+    
+    public LiveSalesSnapshot getTodaySnapshot() {
+        return liveSalesCounter.today();
+    }
+    
+    public SalesTotals getSalesSummary(LocalDateTime startDate, LocalDateTime endDate) {
+        return salesRollupService.summarize(startDate, endDate);
     }
     
     public BigDecimal getTotalProfit(LocalDateTime startDate, LocalDateTime endDate) {
-        Double profit = saleRepository.sumProfitByDateBetween(startDate, endDate);
-        return profit != null ? BigDecimal.valueOf(profit) : BigDecimal.ZERO;
+        return getSalesSummary(startDate, endDate).getProfit();
     }
     
     public BigDecimal getTotalRevenue(LocalDateTime startDate, LocalDateTime endDate) {
-        Double revenue = saleRepository.sumTotalAmountByDateBetween(startDate, endDate);
-        return revenue != null ? BigDecimal.valueOf(revenue) : BigDecimal.ZERO;
+        return getSalesSummary(startDate, endDate).getRevenue();
+    }
+    
+    // Takes the stock off and records the sale in one transaction. Decrements run in medicine id
+    // order so concurrent baskets lock rows consistently. The sale is recorded without touching
+    // thread-local state, since with write combining it may run on another till's thread.
+    private <T> T checkout(Map<Long, Integer> quantities, Function<LocalDateTime, T> recordSale) {
+        Map<Long, Integer> ordered = new TreeMap<>(quantities);
+        LocalDateTime saleDate = LocalDateTime.now();
+        salesRollupService.prepareBuckets(ordered.keySet(), saleDate);
+        T result = applyCheckout(ordered, () -> recordSale.apply(saleDate));
+        ordered.keySet().forEach(medicineId -> eventPublisher.publishEvent(MedicineChangedEvent.stock(medicineId)));
+        return result;
+    }
+    
+    private <T> T applyCheckout(Map<Long, Integer> ordered, Supplier<T> recordSale) {
+        // A combined batch commits on one medicine's row, so only single-medicine sales can join one
+        if (stockWriteCombiner.isEnabled() && ordered.size() == 1) {
+            Map.Entry<Long, Integer> line = ordered.entrySet().iterator().next();
+            StockWriteCombiner.Outcome<T> outcome = stockWriteCombiner.decrement(line.getKey(), line.getValue(), recordSale);
+            if (outcome.status() == StockWriteCombiner.Status.ACCEPTED) {
+                return outcome.value();
+            }
+            if (outcome.status() == StockWriteCombiner.Status.REJECTED) {
+                throw insufficientStock(line.getKey());
+            }
+        }
+        return transactionTemplate.execute(status -> {
+            ordered.forEach((medicineId, quantity) -> {
+                if (medicineRepository.decrementStock(medicineId, quantity, catalogRevisionService.next()) == 0) {
+                    throw insufficientStock(medicineId);
+                }
+            });
+            return recordSale.get();
+        });
+    }
+    
+    // Only called once the sale transaction has committed
+    private void recordLive(SaleResponse sale) {
+        liveSalesCounter.record(sale.getSaleId(), sale.getSaleDate(), sale.getTotalAmount(), sale.getProfit(), sale.getQuantity(),
+                sale.getReversalOfSaleId() == null ? 1 : -1);
+    }
+    
+    private RuntimeException insufficientStock(Long medicineId) {
+        return medicineRepository.findById(medicineId)
+                .<RuntimeException>map(medicine -> new RuntimeException("Insufficient stock for " + medicine.getName()
+                        + ". Available: " + medicine.getQuantity()))
+                .orElseGet(() -> new RuntimeException("Medicine not found: " + medicineId));
+    }
+    
+    private Sale buildSale(Medicine medicine, User user, int quantity, LocalDateTime saleDate) {
+        // Calculate total amount and profit
+        BigDecimal totalAmount = medicine.getSellingPrice().multiply(BigDecimal.valueOf(quantity));
+        BigDecimal costAmount = medicine.getCostPrice().multiply(BigDecimal.valueOf(quantity));
+        BigDecimal profit = totalAmount.subtract(costAmount);
+        
+        Sale sale = new Sale();
+        sale.setMedicine(medicine);
+        sale.setUser(user);
+        sale.setQuantity(quantity);
+        sale.setTotalAmount(totalAmount);
+        sale.setProfit(profit);
+        sale.setSaleDate(saleDate);
+        return sale;
     }
     
     private SaleResponse convertToResponse(Sale sale) {
@@ -92,6 +276,8 @@ public class SaleService {
         response.setProfit(sale.getProfit());
         response.setSaleDate(sale.getSaleDate());
         response.setUserName(sale.getUser().getName());
+        response.setReversalOfSaleId(sale.getReversalOfSaleId());
+        response.setReversalType(sale.getReversalType());
         return response;
     }
 }
@@ -0,0 +1,220 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.SalesTotals;
+import com.pharmacy.model.Sale;
+import com.pharmacy.model.SalesRollup;
+import com.pharmacy.model.SalesRollup.Granularity;
+import com.pharmacy.repository.SaleRepository;
+import com.pharmacy.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Maintains hourly and daily revenue/profit/units/transaction totals per medicine.
+ * Sales add to their buckets inside the sale transaction; range summaries read whole
+ * days and hours from the rollups and only touch raw sales for partial-hour edges.
+ */
+@Service
+public class SalesRollupService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+    private static final int MAX_KNOWN_BUCKETS = 100_000;
+    
+    private final SalesRollupRepository rollupRepository;
+    private final SaleRepository saleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Set<String> knownBuckets = ConcurrentHashMap.newKeySet();
+    
+    public SalesRollupService(SalesRollupRepository rollupRepository,
+                              SaleRepository saleRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.saleRepository = saleRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    // Creates the (empty) bucket rows a sale at this time will add to, each in its own short
+    // transaction. Call before the sale transaction opens so concurrent sales only ever increment.
+    public void prepareBuckets(Collection<Long> medicineIds, LocalDateTime saleDate) {
+        for (Long medicineId : medicineIds) {
+            ensureBucket(Granularity.HOURLY, saleDate.truncatedTo(ChronoUnit.HOURS), medicineId);
+            ensureBucket(Granularity.DAILY, saleDate.truncatedTo(ChronoUnit.DAYS), medicineId);
+        }
+    }
+    
+    // Runs inside the sale transaction, so the rollup commits or rolls back with the sale
+    public void record(Sale sale) {
+        Long medicineId = sale.getMedicine().getMedicineId();
+        addToBucket(Granularity.HOURLY, sale.getSaleDate().truncatedTo(ChronoUnit.HOURS), medicineId, sale);
+        addToBucket(Granularity.DAILY, sale.getSaleDate().truncatedTo(ChronoUnit.DAYS), medicineId, sale);
+    }
+    
+    public SalesTotals summarize(LocalDateTime startDate, LocalDateTime endDate) {
+        SalesTotals totals = new SalesTotals();
+        // The public API treats endDate as inclusive
+        for (Segment segment : split(startDate, endDate.plusNanos(1))) {
+            SalesTotals part = segment.granularity() == null
+                    ? saleRepository.sumTotalsBetween(segment.from(), segment.to())
+                    : rollupRepository.sumBetween(segment.granularity(), segment.from(), segment.to());
+            totals = totals.add(part);
+        }
+        return totals;
+    }
+    
+    // Per-medicine totals for the range, read the same way as summarize()
+    public Map<Long, SalesTotals> summarizeByMedicine(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<Long, SalesTotals> totals = new HashMap<>();
+        for (Segment segment : split(startDate, endDate.plusNanos(1))) {
+            List<Object[]> rows = segment.granularity() == null
+                    ? saleRepository.sumByMedicineBetween(segment.from(), segment.to())
+                    : rollupRepository.sumByMedicineBetween(segment.granularity(), segment.from(), segment.to());
+            for (Object[] row : rows) {
+                SalesTotals part = new SalesTotals((BigDecimal) row[1], (BigDecimal) row[2], (Long) row[3], (Long) row[4]);
+                totals.merge((Long) row[0], part, SalesTotals::add);
+            }
+        }
+        return totals;
+    }
+    
+    public void deleteForMedicine(Long medicineId) {
+        rollupRepository.deleteByMedicineId(medicineId);
+        knownBuckets.removeIf(key -> key.endsWith("|" + medicineId));
+    }
+    
+    // Sales written outside SaleService (e.g. seed data) are folded in once at startup
+    // Ordered first so startup listeners that read the rollups see the rebuilt data
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void rebuildIfEmpty() {
+        if (rollupRepository.count() > 0 || saleRepository.count() == 0) {
+            return;
+        }
+        Map<String, SalesRollup> rollups = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = saleRepository.streamRollupSource()) {
+                rows.forEach(row -> {
+                    Long medicineId = (Long) row[0];
+                    LocalDateTime saleDate = (LocalDateTime) row[1];
+                    accumulate(rollups, Granularity.HOURLY, saleDate.truncatedTo(ChronoUnit.HOURS), medicineId, row);
+                    accumulate(rollups, Granularity.DAILY, saleDate.truncatedTo(ChronoUnit.DAYS), medicineId, row);
+                });
+            }
+            rollupRepository.saveAll(rollups.values());
+        });
+        logger.info("Rebuilt {} sales rollup buckets from existing sales", rollups.size());
+    }
+    
+    private void addToBucket(Granularity granularity, LocalDateTime bucketStart, Long medicineId, Sale sale) {
+        BigDecimal profit = sale.getProfit() != null ? sale.getProfit() : BigDecimal.ZERO;
+        long transactions = transactionDelta(sale.getReversalOfSaleId());
+        int updated = rollupRepository.addToBucket(granularity, bucketStart, medicineId,
+                sale.getTotalAmount(), profit, sale.getQuantity(), transactions);
+        if (updated == 0) {
+            // Bucket was not prepared up front; create it as part of this transaction
+            rollupRepository.save(new SalesRollup(null, granularity, bucketStart, medicineId,
+                    sale.getTotalAmount(), profit, (long) sale.getQuantity(), transactions));
+        }
+    }
+    
+    private void ensureBucket(Granularity granularity, LocalDateTime bucketStart, Long medicineId) {
+        String key = granularity + "|" + bucketStart + "|" + medicineId;
+        if (knownBuckets.contains(key)) {
+            return;
+        }
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                if (!rollupRepository.existsByGranularityAndBucketStartAndMedicineId(granularity, bucketStart, medicineId)) {
+                    rollupRepository.saveAndFlush(new SalesRollup(null, granularity, bucketStart, medicineId,
+                            BigDecimal.ZERO, BigDecimal.ZERO, 0L, 0L));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent sale created the same bucket first
+        }
+        if (knownBuckets.size() >= MAX_KNOWN_BUCKETS) {
+            knownBuckets.clear();
+        }
+        knownBuckets.add(key);
+    }
+    
+    private void accumulate(Map<String, SalesRollup> rollups, Granularity granularity, LocalDateTime bucketStart,
+                            Long medicineId, Object[] row) {
+        SalesRollup rollup = rollups.computeIfAbsent(granularity + "|" + bucketStart + "|" + medicineId,
+                key -> new SalesRollup(null, granularity, bucketStart, medicineId,
+                        BigDecimal.ZERO, BigDecimal.ZERO, 0L, 0L));
+        rollup.setUnits(rollup.getUnits() + (Integer) row[2]);
+        rollup.setRevenue(rollup.getRevenue().add((BigDecimal) row[3]));
+        rollup.setProfit(rollup.getProfit().add(row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO));
+        rollup.setTransactions(rollup.getTransactions() + transactionDelta((Long) row[5]));
+    }
+    
+    // A reversal takes back the transaction of the sale it compensates
+    private static long transactionDelta(Long reversalOfSaleId) {
+        return reversalOfSaleId == null ? 1 : -1;
+    }
+    
+    // Splits [from, to) into raw partial-hour edges, whole hours and whole days
+    private List<Segment> split(LocalDateTime from, LocalDateTime to) {
+        List<Segment> segments = new ArrayList<>();
+        LocalDateTime firstHour = ceil(from, ChronoUnit.HOURS);
+        LocalDateTime lastHour = to.truncatedTo(ChronoUnit.HOURS);
+        if (!firstHour.isBefore(lastHour)) {
+            segments.add(new Segment(null, from, to));
+            return segments;
+        }
+        
+        if (from.isBefore(firstHour)) {
+            segments.add(new Segment(null, from, firstHour));
+        }
+        LocalDateTime firstDay = ceil(firstHour, ChronoUnit.DAYS);
+        LocalDateTime lastDay = lastHour.truncatedTo(ChronoUnit.DAYS);
+        if (firstDay.isBefore(lastDay)) {
+            if (firstHour.isBefore(firstDay)) {
+                segments.add(new Segment(Granularity.HOURLY, firstHour, firstDay));
+            }
+            segments.add(new Segment(Granularity.DAILY, firstDay, lastDay));
+            if (lastDay.isBefore(lastHour)) {
+                segments.add(new Segment(Granularity.HOURLY, lastDay, lastHour));
+            }
+        } else {
+            segments.add(new Segment(Granularity.HOURLY, firstHour, lastHour));
+        }
+        if (lastHour.isBefore(to)) {
+            segments.add(new Segment(null, lastHour, to));
+        }
+        return segments;
+    }
+    
+    private LocalDateTime ceil(LocalDateTime time, ChronoUnit unit) {
+        LocalDateTime truncated = time.truncatedTo(unit);
+        return truncated.equals(time) ? time : truncated.plus(1, unit);
+    }
+    
+    // A null granularity means the segment is read from raw sales
+    private record Segment(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+    }
+}
@@ -0,0 +1,94 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.SalesSeriesPoint;
+import com.pharmacy.dto.SalesTotals;
+import com.pharmacy.repository.SaleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class SalesSeriesService {
+    
+    private static final int MAX_BUCKETS = 10_000;
+    
+    private final SaleRepository saleRepository;
+    
+    public enum Interval {
+        HOUR, DAY, WEEK, MONTH;
+        
+        public static Interval from(String value) {
+            try {
+                return Interval.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported interval: " + value);
+            }
+        }
+        
+        LocalDateTime floor(LocalDateTime time) {
+            return switch (this) {
+                case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+                case WEEK -> time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            };
+        }
+        
+        LocalDateTime next(LocalDateTime bucketStart) {
+            return switch (this) {
+                case HOUR -> bucketStart.plusHours(1);
+                case DAY -> bucketStart.plusDays(1);
+                case WEEK -> bucketStart.plusWeeks(1);
+                case MONTH -> bucketStart.plusMonths(1);
+            };
+        }
+    }
+    
+    // Grouping runs in the database over the sale_date index; weeks are folded from days.
+    // Buckets without sales are returned as zeros so charts get a continuous axis.
+    public List<SalesSeriesPoint> getSeries(LocalDateTime startDate, LocalDateTime endDate, Interval interval) {
+        LocalDateTime from = interval.floor(startDate);
+        LocalDateTime to = interval.next(interval.floor(endDate));
+        
+        Map<LocalDateTime, SalesTotals> buckets = new TreeMap<>();
+        for (LocalDateTime bucket = from; bucket.isBefore(to); bucket = interval.next(bucket)) {
+            if (buckets.size() >= MAX_BUCKETS) {
+                throw new RuntimeException("Range too large for " + interval.name().toLowerCase() + " buckets");
+            }
+            buckets.put(bucket, new SalesTotals());
+        }
+        
+        List<Object[]> rows = switch (interval) {
+            case HOUR -> saleRepository.sumByHour(from, to);
+            case DAY, WEEK -> saleRepository.sumByDay(from, to);
+            case MONTH -> saleRepository.sumByMonth(from, to);
+        };
+        int keyColumns = switch (interval) {
+            case HOUR -> 4;
+            case DAY, WEEK -> 3;
+            case MONTH -> 2;
+        };
+        for (Object[] row : rows) {
+            LocalDateTime time = LocalDateTime.of((Integer) row[0], (Integer) row[1],
+                    keyColumns > 2 ? (Integer) row[2] : 1, keyColumns > 3 ? (Integer) row[3] : 0, 0);
+            SalesTotals totals = new SalesTotals((BigDecimal) row[keyColumns], (BigDecimal) row[keyColumns + 1],
+                    (Long) row[keyColumns + 2], (Long) row[keyColumns + 3]);
+            buckets.merge(interval.floor(time), totals, SalesTotals::add);
+        }
+        
+        return buckets.entrySet().stream()
+                .map(entry -> new SalesSeriesPoint(entry.getKey(), entry.getValue().getRevenue(),
+                        entry.getValue().getProfit(), entry.getValue().getUnits(), entry.getValue().getTransactions()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,303 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.LotExpiryDTO;
+import com.pharmacy.model.LotAllocation;
+import com.pharmacy.model.Sale;
+import com.pharmacy.model.StockLot;
+import com.pharmacy.repository.LotAllocationRepository;
+import com.pharmacy.repository.MedicineRepository;
+import com.pharmacy.repository.StockLotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Stock lots by medicine, picked first-expiry-first-out. Open lots are kept in a
+ * per-medicine, expiry-ordered index so a sale picks its lots without a query; each pick
+ * is then confirmed by a conditional update on the lot row in the sale's transaction.
+ * Index changes are held back until the transaction commits and handed back on rollback.
+ * Stock that predates lot tracking and was never put into a lot is sold unlotted.
+ */
+@Service
+public class StockLotService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StockLotService.class);
+    private static final int MAX_EXPIRY_LOTS = 1000;
+    
+    private final StockLotRepository lotRepository;
+    private final LotAllocationRepository allocationRepository;
+    private final MedicineRepository medicineRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate reloadTemplate;
+    private final ConcurrentHashMap<Long, LotBook> books = new ConcurrentHashMap<>();
+    
+    public StockLotService(StockLotRepository lotRepository,
+                           LotAllocationRepository allocationRepository,
+                           MedicineRepository medicineRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.lotRepository = lotRepository;
+        this.allocationRepository = allocationRepository;
+        this.medicineRepository = medicineRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Reloads run after another transaction has completed, so they need their own
+        this.reloadTemplate = new TransactionTemplate(transactionManager);
+        this.reloadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reloadTemplate.setReadOnly(true);
+    }
+    
+    // Joins the caller's transaction; the lot becomes pickable once that commits
+    public StockLot receive(Long medicineId, Long purchaseId, int quantity, LocalDate expiryDate) {
+        if (expiryDate == null) {
+            throw new RuntimeException("Expiry date is required");
+        }
+        StockLot lot = lotRepository.save(new StockLot(null, medicineId, purchaseId, expiryDate,
+                quantity, quantity, LocalDateTime.now()));
+        OpenLot open = new OpenLot(lot.getLotId(), expiryDate, quantity);
+        afterCompletion(() -> book(medicineId).add(open), () -> { });
+        return lot;
+    }
+    
+    // Batch form of receive for bulk imports; the lots become pickable once the caller commits
+    public void receiveAll(List<StockLot> lots) {
+        List<StockLot> saved = lotRepository.saveAll(lots);
+        afterCompletion(() -> saved.forEach(lot -> book(lot.getMedicineId())
+                .add(new OpenLot(lot.getLotId(), lot.getExpiryDate(), lot.getRemainingQuantity()))), () -> { });
+    }
+    
+    // Picks lots for a saved sale, soonest expiry first; expired lots are never sold
+    public void allocate(Sale sale) {
+        List<Take> takes = take(sale.getMedicine().getMedicineId(), sale.getQuantity(), false);
+        for (Take take : takes) {
+            allocationRepository.save(new LotAllocation(null, sale.getSaleId(), take.lot.lotId, take.quantity));
+        }
+    }
+    
+    // Stock write-offs and manual reductions take expired lots first
+    public void consume(Long medicineId, int quantity) {
+        take(medicineId, quantity, true);
+    }
+    
+    // Puts a reversed sale's units back into the lots they came from
+    public void restore(Long saleId, Long medicineId) {
+        List<LotAllocation> allocations = allocationRepository.findBySaleId(saleId);
+        if (allocations.isEmpty()) {
+            return;
+        }
+        allocations.forEach(allocation -> lotRepository.putBack(allocation.getLotId(), allocation.getQuantity()));
+        afterCompletion(() -> reload(medicineId), () -> { });
+    }
+    
+    public void deleteForMedicine(Long medicineId) {
+        allocationRepository.deleteByMedicineId(medicineId);
+        lotRepository.deleteByMedicineId(medicineId);
+        afterCompletion(() -> books.remove(medicineId), () -> { });
+    }
+    
+    public List<LotExpiryDTO> getExpiringLots(int days, Integer limit) {
+        if (days < 0) {
+            throw new RuntimeException("Days must not be negative");
+        }
+        int size = limit != null ? Math.max(1, Math.min(limit, MAX_EXPIRY_LOTS)) : MAX_EXPIRY_LOTS;
+        return lotRepository.findOpenLotsExpiringBy(LocalDate.now().plusDays(days), PageRequest.of(0, size));
+    }
+    
+    // Stock on hand before lots existed becomes one opening lot per medicine, then open lots are indexed
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        Integer opened = transactionTemplate.execute(status -> {
+            if (lotRepository.count() > 0) {
+                return 0;
+            }
+            List<Object[]> stock = medicineRepository.findStockOnHand();
+            LocalDateTime now = LocalDateTime.now();
+            List<StockLot> lots = new ArrayList<>(stock.size());
+            for (Object[] row : stock) {
+                lots.add(new StockLot(null, (Long) row[0], null, (LocalDate) row[2], (Integer) row[1], (Integer) row[1], now));
+            }
+            lotRepository.saveAll(lots);
+            return lots.size();
+        });
+        Map<Long, LotBook> loaded = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<StockLot> lots = lotRepository.streamOpenLots()) {
+                lots.forEach(lot -> loaded.computeIfAbsent(lot.getMedicineId(), id -> new LotBook())
+                        .add(new OpenLot(lot.getLotId(), lot.getExpiryDate(), lot.getRemainingQuantity())));
+            }
+        });
+        books.clear();
+        books.putAll(loaded);
+        logger.info("Stock lots loaded for {} medicines ({} opening lots created)", loaded.size(), opened);
+    }
+    
+    // Reserves from the index, then confirms each lot row. Sales only take lots that have not
+    // expired; write-offs take expired lots first. Whatever the index could not cover, or a
+    // row refused, is picked again from the lot rows themselves; if those fall short too the
+    // caller's transaction fails rather than committing part of the quantity.
+    private List<Take> take(Long medicineId, int quantity, boolean writeOff) {
+        if (quantity <= 0) {
+            return List.of();
+        }
+        LocalDate today = LocalDate.now();
+        LotBook book = books.get(medicineId);
+        List<Take> takes = book != null ? book.take(quantity, today, writeOff) : List.of();
+        if (book != null) {
+            afterCompletion(() -> { }, () -> book.giveBack(takes));
+        }
+        List<Take> confirmed = new ArrayList<>(takes.size());
+        int covered = 0;
+        for (Take take : takes) {
+            if (lotRepository.take(take.lot.lotId, take.quantity) == 1) {
+                confirmed.add(take);
+                covered += take.quantity;
+            }
+        }
+        if (covered == quantity) {
+            return confirmed;
+        }
+        if (takes.isEmpty() && !lotRepository.existsByMedicineId(medicineId)) {
+            return confirmed;
+        }
+        if (confirmed.size() < takes.size()) {
+            logger.warn("Lot index for medicine {} was out of date; reloading", medicineId);
+        }
+        afterCompletion(() -> reload(medicineId), () -> reload(medicineId));
+        confirmed.addAll(takeFromRows(medicineId, quantity - covered, today, writeOff));
+        return confirmed;
+    }
+    
+    private List<Take> takeFromRows(Long medicineId, int quantity, LocalDate today, boolean writeOff) {
+        LotBook rows = new LotBook();
+        for (Object[] row : lotRepository.findOpenLotRows(medicineId)) {
+            rows.add(new OpenLot((Long) row[0], (LocalDate) row[1], (Integer) row[2]));
+        }
+        List<Take> takes = rows.take(quantity, today, writeOff);
+        int covered = 0;
+        for (Take take : takes) {
+            if (lotRepository.take(take.lot.lotId, take.quantity) == 1) {
+                covered += take.quantity;
+            }
+        }
+        if (covered < quantity) {
+            throw new RuntimeException(writeOff
+                    ? "Insufficient stock in lots. Available: " + covered
+                    : "Insufficient stock. Available before expiry: " + covered);
+        }
+        return takes;
+    }
+    
+    private void reload(Long medicineId) {
+        List<StockLot> lots = reloadTemplate.execute(status -> lotRepository.findOpenLots(medicineId));
+        LotBook book = book(medicineId);
+        synchronized (book) {
+            book.lots.clear();
+            lots.forEach(lot -> book.lots.add(new OpenLot(lot.getLotId(), lot.getExpiryDate(), lot.getRemainingQuantity())));
+        }
+    }
+    
+    private LotBook book(Long medicineId) {
+        return books.computeIfAbsent(medicineId, id -> new LotBook());
+    }
+    
+    // Runs straight away when there is no transaction to wait for
+    private static void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+    
+    private static class LotBook {
+        private static final Comparator<OpenLot> FEFO = Comparator
+                .comparing((OpenLot lot) -> lot.expiryDate)
+                .thenComparing(lot -> lot.lotId);
+        
+        private final TreeSet<OpenLot> lots = new TreeSet<>(FEFO);
+        
+        private synchronized void add(OpenLot lot) {
+            if (lot.remaining > 0) {
+                lots.add(lot);
+            }
+        }
+        
+        // Usable lots only, or for a write-off expired lots and then usable ones
+        private synchronized List<Take> take(int quantity, LocalDate today, boolean writeOff) {
+            List<Take> takes = new ArrayList<>();
+            int needed = quantity;
+            // Expired lots sort first, so splitting at today gives the two passes
+            OpenLot firstUsable = new OpenLot(Long.MIN_VALUE, today, 0);
+            List<OpenLot> usable = new ArrayList<>(lots.tailSet(firstUsable, true));
+            List<List<OpenLot>> passes = writeOff
+                    ? List.of(new ArrayList<>(lots.headSet(firstUsable, false)), usable)
+                    : List.of(usable);
+            for (List<OpenLot> pass : passes) {
+                for (OpenLot lot : pass) {
+                    if (needed == 0) {
+                        return takes;
+                    }
+                    int taken = Math.min(needed, lot.remaining);
+                    lot.remaining -= taken;
+                    needed -= taken;
+                    if (lot.remaining == 0) {
+                        lots.remove(lot);
+                    }
+                    takes.add(new Take(lot, taken));
+                }
+            }
+            return takes;
+        }
+        
+        private synchronized void giveBack(List<Take> takes) {
+            for (Take take : takes) {
+                take.lot.remaining += take.quantity;
+                lots.add(take.lot);
+            }
+        }
+    }
+    
+    private static class OpenLot {
+        private final Long lotId;
+        private final LocalDate expiryDate;
+        private int remaining;
+        
+        private OpenLot(Long lotId, LocalDate expiryDate, int remaining) {
+            this.lotId = lotId;
+            this.expiryDate = expiryDate;
+            this.remaining = remaining;
+        }
+    }
+    
+    private record Take(OpenLot lot, int quantity) {
+    }
+}
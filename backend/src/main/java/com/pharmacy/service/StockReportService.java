@@ -0,0 +1,108 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.CursorPage;
+import com.pharmacy.dto.StockReportDTO;
+import com.pharmacy.dto.StockReportPage;
+import com.pharmacy.model.Medicine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class StockReportService {
+    
+    private final EntityManager entityManager;
+    
+    public enum Status {
+        OUT_OF_STOCK, LOW, NORMAL;
+        
+        public static Status from(String value) {
+            try {
+                return Status.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported stock status: " + value);
+            }
+        }
+    }
+    
+    // One projection query for the page, with the status worked out in SQL, and one grouped
+    // count per status that also gives the page total. Status filters map onto quantity and
+    // the stored low_stock flag so they can use the medicine indexes.
+    @Transactional(readOnly = true)
+    public StockReportPage query(Status status, String category, Integer page, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        int pageNumber = page != null && page > 0 ? page : 0;
+        String categoryFilter = category != null && !category.isBlank() ? category.trim() : null;
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        
+        CriteriaQuery<StockReportDTO> select = cb.createQuery(StockReportDTO.class);
+        Root<Medicine> medicine = select.from(Medicine.class);
+        select.select(cb.construct(StockReportDTO.class,
+                        medicine.get("medicineId"), medicine.get("name"), medicine.get("category"),
+                        medicine.get("quantity"), medicine.get("reorderLevel"),
+                        medicine.get("costPrice"), medicine.get("sellingPrice"), statusOf(cb, medicine)))
+                .where(predicates(cb, medicine, status, categoryFilter))
+                .orderBy(cb.asc(medicine.get("name")), cb.asc(medicine.get("medicineId")));
+        List<StockReportDTO> items = entityManager.createQuery(select)
+                .setFirstResult(pageNumber * pageSize)
+                .setMaxResults(pageSize)
+                .getResultList();
+        
+        // Counts ignore the status filter so every status tab can show its size
+        CriteriaQuery<Object[]> grouped = cb.createQuery(Object[].class);
+        Root<Medicine> counted = grouped.from(Medicine.class);
+        Expression<String> countedStatus = statusOf(cb, counted);
+        grouped.multiselect(countedStatus, cb.count(counted))
+                .where(predicates(cb, counted, null, categoryFilter))
+                .groupBy(countedStatus);
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        for (Status s : Status.values()) {
+            statusCounts.put(s.name(), 0L);
+        }
+        for (Object[] row : entityManager.createQuery(grouped).getResultList()) {
+            statusCounts.put((String) row[0], (Long) row[1]);
+        }
+        
+        long total = status != null
+                ? statusCounts.get(status.name())
+                : statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        return new StockReportPage(items, pageNumber, pageSize, total,
+                (int) ((total + pageSize - 1) / pageSize), statusCounts);
+    }
+    
+    // Matches the stored flag: low_stock is quantity <= reorder level, so an empty shelf is always low too
+    private Expression<String> statusOf(CriteriaBuilder cb, Root<Medicine> medicine) {
+        return cb.<String>selectCase()
+                .when(cb.equal(medicine.get("quantity"), 0), Status.OUT_OF_STOCK.name())
+                .when(cb.isTrue(medicine.get("lowStock")), Status.LOW.name())
+                .otherwise(Status.NORMAL.name());
+    }
+    
+    private Predicate[] predicates(CriteriaBuilder cb, Root<Medicine> medicine, Status status, String category) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (status == Status.OUT_OF_STOCK) {
+            predicates.add(cb.equal(medicine.get("quantity"), 0));
+        } else if (status == Status.LOW) {
+            predicates.add(cb.isTrue(medicine.get("lowStock")));
+            predicates.add(cb.greaterThan(medicine.<Integer>get("quantity"), 0));
+        } else if (status == Status.NORMAL) {
+            predicates.add(cb.isFalse(medicine.get("lowStock")));
+        }
+        if (category != null) {
+            predicates.add(cb.equal(medicine.get("category"), category));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
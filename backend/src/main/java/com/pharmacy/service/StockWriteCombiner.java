@@ -0,0 +1,218 @@
+package com.pharmacy.service;
+
+import com.pharmacy.repository.MedicineRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent stock decrements for the same medicine into one row update.
+ * The first caller to arrive becomes the leader for that medicine, waits for the combining
+ * window, then applies every queued decrement it can satisfy in a single update and runs each
+ * accepted caller's work in the same transaction, so stock and sales commit or roll back
+ * together. Each caller still gets its own answer, and stock never goes negative.
+ */
+@Service
+public class StockWriteCombiner {
+    
+    // Re-reads of the row when a batch only partly fits before callers are sent the uncombined way
+    static final int MAX_PARTIAL_ATTEMPTS = 3;
+    
+    private final MedicineRepository medicineRepository;
+    private final CatalogRevisionService catalogRevisionService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final ConcurrentHashMap<Long, Lane> lanes = new ConcurrentHashMap<>();
+    
+    public StockWriteCombiner(MedicineRepository medicineRepository,
+                              CatalogRevisionService catalogRevisionService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${pharmacy.stock.write-combining.enabled:false}") boolean enabled,
+                              @Value("${pharmacy.stock.write-combining.window-ms:2}") long windowMillis) {
+        this.medicineRepository = medicineRepository;
+        this.catalogRevisionService = catalogRevisionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.windowMillis = Math.max(0, windowMillis);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public enum Status {
+        // Stock taken and the work committed with it
+        ACCEPTED,
+        // Not enough stock; nothing was written
+        REJECTED,
+        // Nothing was written; the caller should take the stock and do the work itself
+        UNCOMBINED
+    }
+    
+    public record Outcome<T>(Status status, T value) {
+    }
+    
+    // Work runs on whichever thread leads the batch, inside the combined transaction, so it must
+    // not depend on the caller's thread-local state
+    public <T> Outcome<T> decrement(Long medicineId, int quantity, Supplier<T> work) {
+        Lane lane = lanes.computeIfAbsent(medicineId, id -> new Lane());
+        PendingDecrement<T> pending = new PendingDecrement<>(quantity, work);
+        lane.queue.add(pending);
+        
+        while (!pending.result.isDone()) {
+            if (lane.draining.compareAndSet(false, true)) {
+                try {
+                    waitForWindow();
+                    drain(medicineId, lane);
+                } finally {
+                    lane.draining.set(false);
+                }
+            } else if (!awaitLeader(pending)) {
+                if (lane.queue.remove(pending)) {
+                    throw new RuntimeException("Interrupted while waiting for a combined stock update");
+                }
+                // A leader already took it; its transaction decides, so wait for that answer
+                return awaitUninterruptibly(pending);
+            }
+        }
+        return pending.result.join();
+    }
+    
+    private void drain(Long medicineId, Lane lane) {
+        List<PendingDecrement<?>> batch = new ArrayList<>();
+        PendingDecrement<?> next;
+        while ((next = lane.queue.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(medicineId, batch));
+        } catch (RuntimeException e) {
+            // Nothing was committed; each caller redoes its own sale so only the failing one sees the error
+            batch.forEach(p -> p.complete(Status.UNCOMBINED));
+            return;
+        }
+        // Answer only once the combined update has committed
+        batch.forEach(p -> p.complete(p.status));
+    }
+    
+    private void apply(Long medicineId, List<PendingDecrement<?>> batch) {
+        int requested = batch.stream().mapToInt(p -> p.quantity).sum();
+        if (medicineRepository.decrementStock(medicineId, requested, catalogRevisionService.next()) == 1) {
+            batch.forEach(p -> p.status = Status.ACCEPTED);
+            batch.forEach(PendingDecrement::run);
+            return;
+        }
+        
+        // Not enough for everyone: accept in arrival order whatever current stock covers
+        for (int attempt = 0; attempt < MAX_PARTIAL_ATTEMPTS; attempt++) {
+            Integer available = medicineRepository.findQuantityById(medicineId);
+            int accepted = 0;
+            for (PendingDecrement<?> p : batch) {
+                boolean fits = available != null && accepted + p.quantity <= available;
+                p.status = fits ? Status.ACCEPTED : Status.REJECTED;
+                if (fits) {
+                    accepted += p.quantity;
+                }
+            }
+            if (accepted == 0) {
+                return;
+            }
+            if (medicineRepository.decrementStock(medicineId, accepted, catalogRevisionService.next()) == 1) {
+                batch.stream().filter(p -> p.status == Status.ACCEPTED).forEach(PendingDecrement::run);
+                return;
+            }
+        }
+        // Other writers kept moving the row; let each caller take its own stock instead
+        batch.forEach(p -> p.status = Status.UNCOMBINED);
+    }
+    
+    private void waitForWindow() {
+        if (windowMillis == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(windowMillis);
+        } catch (InterruptedException e) {
+            // Followers are waiting on this leader, so drain now and leave the flag for the caller
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // False when the caller was interrupted
+    private boolean awaitLeader(PendingDecrement<?> pending) {
+        try {
+            pending.result.get(windowMillis + 1, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Still queued: go round and try for leadership
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+    
+    private static <T> Outcome<T> awaitUninterruptibly(PendingDecrement<T> pending) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            while (true) {
+                try {
+                    return pending.result.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private static class Lane {
+        private final Queue<PendingDecrement<?>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+    }
+    
+    private static class PendingDecrement<T> {
+        private final int quantity;
+        private final Supplier<T> work;
+        private final CompletableFuture<Outcome<T>> result = new CompletableFuture<>();
+        private Status status;
+        private T value;
+        
+        private PendingDecrement(int quantity, Supplier<T> work) {
+            this.quantity = quantity;
+            this.work = work;
+        }
+        
+        private void run() {
+            value = work.get();
+        }
+        
+        private void complete(Status status) {
+            result.complete(new Outcome<>(status, status == Status.ACCEPTED ? value : null));
+        }
+    }
+}
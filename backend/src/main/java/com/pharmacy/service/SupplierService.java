@@ -1,9 +1,15 @@
 package com.pharmacy.service;
 
+import com.pharmacy.event.MedicineChangedEvent;
+import com.pharmacy.exception.ConflictException;
 import com.pharmacy.model.Supplier;
+import com.pharmacy.repository.MedicineRepository;
 import com.pharmacy.repository.SupplierRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
@@ -12,6 +18,10 @@ import java.util.List;
 public class SupplierService {
     
     private final SupplierRepository supplierRepository;
+    private final MedicineRepository medicineRepository;
+    private final CatalogRevisionService catalogRevisionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
     
     public List<Supplier> getAllSuppliers() {
         return supplierRepository.findAll();
@@ -26,12 +36,33 @@ public class SupplierService {
         return supplierRepository.save(supplier);
     }
     
+    // Refused with the current supplier when the request names a version that is no longer current
     public Supplier updateSupplier(Long id, Supplier supplier) {
+        int attempts = supplier.getVersion() == null ? OptimisticRetry.MAX_ATTEMPTS : 1;
+        try {
+            return OptimisticRetry.run(attempts, () -> transactionTemplate.execute(status -> applyUpdate(id, supplier)));
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Supplier was changed by someone else", getSupplierById(id));
+        }
+    }
+    
+    private Supplier applyUpdate(Long id, Supplier supplier) {
         Supplier existingSupplier = getSupplierById(id);
+        if (supplier.getVersion() != null && !supplier.getVersion().equals(existingSupplier.getVersion())) {
+            throw new ConflictException("Supplier was changed by someone else", existingSupplier);
+        }
+        if (!existingSupplier.getName().equals(supplier.getName())) {
+            // Synced catalogs carry the supplier name, so its medicines count as changed
+            medicineRepository.findIdsBySupplierId(id)
+                    .forEach(medicineId -> medicineRepository.updateRevision(medicineId, catalogRevisionService.next()));
+        }
         existingSupplier.setName(supplier.getName());
         existingSupplier.setContact(supplier.getContact());
         existingSupplier.setEmail(supplier.getEmail());
-        return supplierRepository.save(existingSupplier);
+        Supplier saved = supplierRepository.saveAndFlush(existingSupplier);
+        // Medicine listings carry the supplier name
+        eventPublisher.publishEvent(MedicineChangedEvent.all());
+        return saved;
     }
     
     public void deleteSupplier(Long id) {
@@ -1,15 +1,21 @@
 package com.pharmacy.service;
 
 import com.pharmacy.config.JwtUtil;
+import com.pharmacy.dto.CursorPage;
 import com.pharmacy.dto.LoginRequest;
 import com.pharmacy.dto.LoginResponse;
+import com.pharmacy.exception.ConflictException;
 import com.pharmacy.model.User;
 import com.pharmacy.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +24,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final TransactionTemplate transactionTemplate;
     
     public LoginResponse login(LoginRequest request) {
         User user = userRepository.findByEmail(request.getEmail())
@@ -45,6 +52,14 @@ public class UserService {
         return userRepository.findAll();
     }
     
+    public CursorPage<User> getUsersPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        Long after = CursorPage.decodeCursor(cursor);
+        List<User> rows = userRepository.findByUserIdGreaterThanOrderByUserIdAsc(
+                after != null ? after : 0L, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, User::getUserId, Function.identity());
+    }
+    
     public User getUserById(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -55,8 +70,21 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
     
+    // Refused with the current user when the request names a version that is no longer current
     public User updateUser(Long id, User user) {
+        int attempts = user.getVersion() == null ? OptimisticRetry.MAX_ATTEMPTS : 1;
+        try {
+            return OptimisticRetry.run(attempts, () -> transactionTemplate.execute(status -> applyUpdate(id, user)));
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("User was changed by someone else", getUserById(id));
+        }
+    }
+    
+    private User applyUpdate(Long id, User user) {
         User existingUser = getUserById(id);
+        if (user.getVersion() != null && !user.getVersion().equals(existingUser.getVersion())) {
+            throw new ConflictException("User was changed by someone else", existingUser);
+        }
         existingUser.setName(user.getName());
         existingUser.setRole(user.getRole());
         
@@ -64,7 +92,7 @@ public class UserService {
             existingUser.setPassword(passwordEncoder.encode(user.getPassword()));
         }
         
-        return userRepository.save(existingUser);
+        return userRepository.saveAndFlush(existingUser);
     }
     
     public void deleteUser(Long id) {
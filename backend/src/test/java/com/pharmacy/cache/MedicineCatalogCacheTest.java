@@ -0,0 +1,61 @@
+package com.pharmacy.cache;
+
+import com.pharmacy.dto.MedicineDTO;
+import com.pharmacy.event.MedicineChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MedicineCatalogCacheTest {
+    
+    private final MedicineCatalogCache cache = new MedicineCatalogCache(100, 60);
+    private final AtomicInteger fullLoads = new AtomicInteger();
+    private final List<Collection<Long>> refreshed = new ArrayList<>();
+    private int stock = 10;
+    
+    @Test
+    void stockChangeRereadsOnlyTheAffectedRow() {
+        assertThat(listing()).extracting(MedicineDTO::getQuantity).containsExactly(10, 10, 10);
+        
+        stock = 7;
+        cache.onMedicineChanged(MedicineChangedEvent.stock(2L));
+        assertThat(listing()).extracting(MedicineDTO::getQuantity).containsExactly(10, 7, 10);
+        assertThat(listing()).extracting(MedicineDTO::getQuantity).containsExactly(10, 7, 10);
+        
+        assertThat(fullLoads.get()).isEqualTo(1);
+        assertThat(refreshed).containsExactly(List.of(2L));
+    }
+    
+    @Test
+    void catalogEditReloadsTheListing() {
+        listing();
+        cache.onMedicineChanged(MedicineChangedEvent.stock(1L));
+        cache.onMedicineChanged(new MedicineChangedEvent(3L));
+        listing();
+        
+        assertThat(fullLoads.get()).isEqualTo(2);
+        assertThat(refreshed).isEmpty();
+    }
+    
+    private List<MedicineDTO> listing() {
+        return cache.getAll(() -> {
+            fullLoads.incrementAndGet();
+            return List.of(row(1L), row(2L), row(3L));
+        }, ids -> {
+            refreshed.add(List.copyOf(ids));
+            return ids.stream().map(this::row).toList();
+        });
+    }
+    
+    private MedicineDTO row(Long id) {
+        MedicineDTO dto = new MedicineDTO();
+        dto.setMedicineId(id);
+        dto.setQuantity(id == 2L ? stock : 10);
+        return dto;
+    }
+}
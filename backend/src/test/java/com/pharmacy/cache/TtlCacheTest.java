@@ -0,0 +1,58 @@
+package com.pharmacy.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TtlCacheTest {
+    
+    @Test
+    void putIfAbsentIsNotCountedAsHitOrMiss() {
+        TtlCache<String, String> cache = new TtlCache<>(10, Duration.ofMinutes(1));
+        
+        assertThat(cache.putIfAbsent("a", "first")).isNull();
+        assertThat(cache.putIfAbsent("a", "second")).isEqualTo("first");
+        assertThat(cache.getHits()).isZero();
+        assertThat(cache.getMisses()).isZero();
+        
+        assertThat(cache.get("a")).isEqualTo("first");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+    
+    @Test
+    void evictsLeastRecentlyUsedOverTheBound() {
+        TtlCache<String, String> cache = new TtlCache<>(2, Duration.ofMinutes(1));
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+        
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("c")).isEqualTo("3");
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+    
+    @Test
+    void pinnedEntriesSurviveEvictionAndExpiry() {
+        TtlCache<String, CompletableFuture<String>> cache =
+                new TtlCache<>(1, Duration.ZERO, future -> !future.isDone());
+        CompletableFuture<String> running = new CompletableFuture<>();
+        cache.putIfAbsent("running", running);
+        cache.put("done", CompletableFuture.completedFuture("x"));
+        cache.put("also-done", CompletableFuture.completedFuture("y"));
+        
+        // Over the bound and past its time to live, but still in progress
+        assertThat(cache.putIfAbsent("running", new CompletableFuture<>())).isSameAs(running);
+        assertThat(cache.get("done")).isNull();
+        
+        running.complete("finished");
+        cache.put("next", CompletableFuture.completedFuture("z"));
+        assertThat(cache.get("running")).isNull();
+    }
+}
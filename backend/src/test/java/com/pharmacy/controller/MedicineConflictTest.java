@@ -0,0 +1,109 @@
+package com.pharmacy.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.dto.MedicineDTO;
+import com.pharmacy.service.MedicineService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "PHARMACIST")
+class MedicineConflictTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MedicineService medicineService;
+    
+    @Test
+    void staleVersionIsRefusedWithTheCurrentRow() throws Exception {
+        MedicineDTO created = medicineService.createMedicine(medicine("Conflict stale version", 20));
+        MedicineDTO staleForm = medicine("Conflict stale version", 20);
+        staleForm.setVersion(created.getVersion());
+        medicineService.updateStock(created.getMedicineId(), -3);
+        
+        staleForm.setSellingPrice(new BigDecimal("9.00"));
+        update(created.getMedicineId(), staleForm)
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Medicine was changed by someone else"))
+                .andExpect(jsonPath("$.current.quantity").value(17))
+                .andExpect(jsonPath("$.current.version").value(created.getVersion() + 1));
+        assertThat(medicineService.getMedicineById(created.getMedicineId()).getSellingPrice()).isEqualByComparingTo("2.00");
+    }
+    
+    @Test
+    void currentVersionIsSaved() throws Exception {
+        MedicineDTO created = medicineService.createMedicine(medicine("Conflict current version", 20));
+        MedicineDTO form = medicine("Conflict current version", 20);
+        form.setVersion(created.getVersion());
+        form.setSellingPrice(new BigDecimal("3.50"));
+        
+        update(created.getMedicineId(), form)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sellingPrice").value(3.50))
+                .andExpect(jsonPath("$.version").value(created.getVersion() + 1));
+    }
+    
+    @Test
+    void unversionedEditKeepsStockSoldMeanwhile() throws Exception {
+        MedicineDTO created = medicineService.createMedicine(medicine("Conflict unversioned", 20));
+        medicineService.updateStock(created.getMedicineId(), -5);
+        MedicineDTO form = medicine("Conflict unversioned renamed", null);
+        
+        update(created.getMedicineId(), form)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Conflict unversioned renamed"))
+                .andExpect(jsonPath("$.quantity").value(15));
+    }
+    
+    @Test
+    void unversionedQuantityChangeIsRefused() throws Exception {
+        MedicineDTO created = medicineService.createMedicine(medicine("Conflict unversioned quantity", 20));
+        medicineService.updateStock(created.getMedicineId(), -5);
+        
+        update(created.getMedicineId(), medicine("Conflict unversioned quantity", 20))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Changing the quantity needs the version the edit started from"))
+                .andExpect(jsonPath("$.current.quantity").value(15));
+    }
+    
+    private ResultActions update(Long id, MedicineDTO form) throws Exception {
+        return mockMvc.perform(put("/api/medicines/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(form)));
+    }
+    
+    private static MedicineDTO medicine(String name, Integer quantity) {
+        MedicineDTO dto = new MedicineDTO();
+        dto.setName(name);
+        dto.setCategory("Test");
+        dto.setCostPrice(new BigDecimal("1.00"));
+        dto.setSellingPrice(new BigDecimal("2.00"));
+        dto.setQuantity(quantity);
+        dto.setExpiryDate(LocalDate.now().plusYears(1));
+        dto.setReorderLevel(5);
+        dto.setSupplierId(1L);
+        return dto;
+    }
+}
@@ -0,0 +1,159 @@
+package com.pharmacy.repository;
+
+import com.pharmacy.dto.PurchaseDTO;
+import com.pharmacy.dto.SaleResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Statement counts and latency of the listing projections against the entity reads they replaced
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ListingProjectionTest {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ListingProjectionTest.class);
+    
+    private static final int MEDICINES = 500;
+    private static final int USERS = 50;
+    private static final int SALES = 20_000;
+    private static final int PURCHASES = 5_000;
+    private static final int RUNS = 5;
+    
+    @Autowired
+    private SaleRepository saleRepository;
+    
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+    
+    @Autowired
+    private MedicineRepository medicineRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @BeforeAll
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        
+        List<Object[]> medicines = new ArrayList<>();
+        for (int i = 0; i < MEDICINES; i++) {
+            medicines.add(new Object[]{"Bulk medicine " + i, "bulk medicine " + i, "Bulk", new BigDecimal("1.00"), new BigDecimal("2.00"),
+                    1000, Date.valueOf(LocalDate.now().plusYears(1)), 10, 1 + i % 5});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO medicines (name, name_key, category, cost_price, selling_price, quantity, " +
+                "expiry_date, reorder_level, low_stock, supplier_id, revision, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, false, ?, 0, 0)", medicines);
+        List<Long> medicineIds = jdbcTemplate.queryForList("SELECT medicine_id FROM medicines WHERE category = 'Bulk'", Long.class);
+        
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new Object[]{"Bulk user " + i, "bulk" + i + "@pharmacy.com", "x", "CASHIER"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email, password, role, version) VALUES (?, ?, ?, ?, 0)", users);
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT user_id FROM users WHERE email LIKE 'bulk%'", Long.class);
+        
+        // Explicit ids far above the pooled sequence, so later inserts in this context cannot collide
+        LocalDateTime start = LocalDateTime.now().minusDays(90);
+        List<Object[]> sales = new ArrayList<>();
+        for (int i = 0; i < SALES; i++) {
+            sales.add(new Object[]{1_000_000L + i, medicineIds.get(i % MEDICINES), userIds.get(i % USERS), 1,
+                    new BigDecimal("2.00"), new BigDecimal("1.00"), Timestamp.valueOf(start.plusMinutes(i * 6L))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sales (sale_id, medicine_id, user_id, quantity, total_amount, profit, sale_date) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", sales);
+        
+        List<Object[]> purchases = new ArrayList<>();
+        for (int i = 0; i < PURCHASES; i++) {
+            purchases.add(new Object[]{medicineIds.get(i % MEDICINES), 1 + i % 5, 10, new BigDecimal("10.00"),
+                    Timestamp.valueOf(start.plusMinutes(i * 20L))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO purchases (medicine_id, supplier_id, quantity, total_cost, purchase_date) " +
+                "VALUES (?, ?, ?, ?, ?)", purchases);
+    }
+    
+    @Test
+    void saleListingIsOneStatement() {
+        Measurement before = measure("sales, entity graph", () -> saleRepository.findAll().stream()
+                .map(sale -> new SaleResponse(sale.getSaleId(), sale.getMedicine().getName(), sale.getQuantity(),
+                        sale.getTotalAmount(), sale.getProfit(), sale.getSaleDate(), sale.getUser().getName(),
+                        sale.getReversalOfSaleId(), sale.getReversalType()))
+                .toList());
+        Measurement after = measure("sales, projection", saleRepository::findAllResponses);
+        
+        assertThat(after.rows).isEqualTo(before.rows).isGreaterThanOrEqualTo(SALES);
+        assertThat(after.statements).isEqualTo(1);
+        assertThat(before.statements).isGreaterThan(MEDICINES);
+    }
+    
+    @Test
+    void purchaseListingIsOneStatement() {
+        Measurement before = measure("purchases, entity graph", () -> purchaseRepository.findAll().stream()
+                .map(purchase -> new PurchaseDTO(purchase.getPurchaseId(), purchase.getMedicine().getMedicineId(),
+                        purchase.getSupplier().getSupplierId(), purchase.getQuantity(), purchase.getTotalCost(),
+                        purchase.getPurchaseDate(), purchase.getMedicine().getName(), purchase.getSupplier().getName(),
+                        purchase.getExpiryDate()))
+                .toList());
+        Measurement after = measure("purchases, projection", purchaseRepository::findAllDTOs);
+        
+        assertThat(after.rows).isEqualTo(before.rows).isGreaterThanOrEqualTo(PURCHASES);
+        assertThat(after.statements).isEqualTo(1);
+        assertThat(before.statements).isGreaterThan(MEDICINES);
+    }
+    
+    @Test
+    void medicineListingIsOneStatement() {
+        Measurement before = measure("medicines, entity graph", () -> medicineRepository.findAll().stream()
+                .map(medicine -> medicine.getSupplier().getName())
+                .toList());
+        Measurement after = measure("medicines, projection", medicineRepository::findAllDTOs);
+        
+        assertThat(after.rows).isEqualTo(before.rows).isGreaterThanOrEqualTo(MEDICINES);
+        assertThat(after.statements).isEqualTo(1);
+        assertThat(before.statements).isGreaterThan(1);
+    }
+    
+    // Statements of a single cold run, then the median wall time of the following runs
+    private Measurement measure(String label, Supplier<List<?>> listing) {
+        statistics.clear();
+        int rows = listing.get().size();
+        long statements = statistics.getPrepareStatementCount();
+        long[] millis = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long started = System.nanoTime();
+            listing.get();
+            millis[i] = (System.nanoTime() - started) / 1_000_000;
+        }
+        Arrays.sort(millis);
+        logger.info("{}: {} rows, {} statements, median {} ms", label, rows, statements, millis[RUNS / 2]);
+        return new Measurement(rows, statements);
+    }
+    
+    private record Measurement(int rows, long statements) {
+    }
+}
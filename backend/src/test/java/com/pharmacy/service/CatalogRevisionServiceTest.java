@@ -0,0 +1,114 @@
+package com.pharmacy.service;
+
+import com.pharmacy.repository.MedicineRepository;
+import com.pharmacy.repository.MedicineTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogRevisionServiceTest {
+    
+    private static final long BASE = 40;
+    
+    private final CatalogRevisionService revisions = revisionsFrom(BASE);
+    
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    @Test
+    void revisionStaysHiddenUntilItsTransactionFinishes() {
+        List<TransactionSynchronization> slowWrite = inTransaction(() -> assertThat(revisions.next()).isEqualTo(BASE + 1));
+        assertThat(revisions.next()).isEqualTo(BASE + 2);
+        
+        // The later write finished first, but the earlier one could still commit underneath it
+        assertThat(revisions.visibleRevision()).isEqualTo(BASE);
+        
+        slowWrite.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertThat(revisions.visibleRevision()).isEqualTo(BASE + 2);
+    }
+    
+    @Test
+    void visibleRevisionNeverPassesAnUnfinishedWrite() throws Exception {
+        Set<Long> finished = ConcurrentHashMap.newKeySet();
+        List<String> violations = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Thread reader = new Thread(() -> {
+            while (writing.get()) {
+                long visible = revisions.visibleRevision();
+                for (long revision = BASE + 1; revision <= visible; revision++) {
+                    if (!finished.contains(revision)) {
+                        violations.add("revision " + revision + " visible before it finished");
+                        return;
+                    }
+                }
+            }
+        });
+        reader.start();
+        
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> calls = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            calls.add(writers.submit(() -> {
+                start.await();
+                for (int i = 0; i < 2000; i++) {
+                    long[] revision = new long[1];
+                    List<TransactionSynchronization> syncs = inTransaction(() -> revision[0] = revisions.next());
+                    finished.add(revision[0]);
+                    syncs.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> call : calls) {
+            call.get(30, TimeUnit.SECONDS);
+        }
+        writers.shutdown();
+        writing.set(false);
+        reader.join();
+        
+        assertThat(violations).isEmpty();
+        assertThat(revisions.visibleRevision()).isEqualTo(BASE + 16_000);
+    }
+    
+    // Runs the body as if inside a transaction and hands back what should run on completion
+    private static List<TransactionSynchronization> inTransaction(Runnable body) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            body.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    private static CatalogRevisionService revisionsFrom(long base) {
+        MedicineRepository medicineRepository = mock(MedicineRepository.class);
+        MedicineTombstoneRepository tombstoneRepository = mock(MedicineTombstoneRepository.class);
+        when(medicineRepository.findMaxRevision()).thenReturn(base);
+        when(tombstoneRepository.findMaxRevision()).thenReturn(base - 10);
+        return new CatalogRevisionService(medicineRepository, tombstoneRepository);
+    }
+}
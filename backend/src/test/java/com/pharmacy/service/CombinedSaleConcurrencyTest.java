@@ -0,0 +1,8 @@
+package com.pharmacy.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+// Same oversell run with concurrent decrements coalesced by StockWriteCombiner
+@TestPropertySource(properties = "pharmacy.stock.write-combining.enabled=true")
+class CombinedSaleConcurrencyTest extends SaleConcurrencyTest {
+}
@@ -0,0 +1,47 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.ForecastDTO;
+import com.pharmacy.model.SalesRollup.Granularity;
+import com.pharmacy.repository.MedicineRepository;
+import com.pharmacy.repository.SaleRepository;
+import com.pharmacy.repository.SalesRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DemandForecastServiceTest {
+    
+    @Test
+    void salesRecordedBeforeTheSeedKeepTheRollupHistory() {
+        MedicineRepository medicineRepository = mock(MedicineRepository.class);
+        SaleRepository saleRepository = mock(SaleRepository.class);
+        SalesRollupRepository rollupRepository = mock(SalesRollupRepository.class);
+        DemandForecastService forecasts = new DemandForecastService(medicineRepository, saleRepository, rollupRepository,
+                mock(PlatformTransactionManager.class), 0.2, 7, 1.65, 180);
+        LocalDate today = LocalDate.now();
+        
+        // A till sells before the startup seed has run
+        forecasts.record(1L, 4, LocalDateTime.now());
+        when(rollupRepository.streamUnitsBetween(eq(Granularity.DAILY), any(), any())).thenReturn(Stream.of(
+                new Object[]{1L, today.minusDays(2).atStartOfDay(), 10L},
+                new Object[]{1L, today.minusDays(1).atStartOfDay(), 20L}));
+        when(saleRepository.sumByMedicineBetween(any(), any())).thenReturn(List.<Object[]>of(
+                new Object[]{1L, null, null, 6L, 1L}));
+        forecasts.seedFromRollups();
+        when(medicineRepository.findStockSummaries()).thenReturn(List.<Object[]>of(new Object[]{1L, "Seeded", 100, 5}));
+        
+        // Both closed days folded: 10, then 10 + 0.2 * (20 - 10)
+        ForecastDTO forecast = forecasts.getForecast(false).get(0);
+        assertThat(forecast.getDailyDemand()).isEqualByComparingTo("12.00");
+    }
+}
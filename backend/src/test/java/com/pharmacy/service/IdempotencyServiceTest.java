@@ -0,0 +1,86 @@
+package com.pharmacy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacy.dto.SaleRequest;
+import com.pharmacy.exception.ConflictException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest {
+    
+    @Test
+    void retryOfRunningActionWaitsEvenAfterOtherKeysFillTheStore() throws Exception {
+        IdempotencyService service = new IdempotencyService(2, 60, new ObjectMapper());
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        CompletableFuture<String> original = CompletableFuture.supplyAsync(() -> service.execute("sale", "key-1", "request", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "receipt";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        
+        // Enough other keys to push key-1 out of a plain LRU
+        for (int i = 0; i < 10; i++) {
+            String key = "other-" + i;
+            service.execute("sale", key, "request", () -> key);
+        }
+        
+        CompletableFuture<String> retry = CompletableFuture.supplyAsync(() -> service.execute("sale", "key-1", "request", () -> {
+            runs.incrementAndGet();
+            return "duplicate";
+        }));
+        release.countDown();
+        
+        assertThat(original.get(5, TimeUnit.SECONDS)).isEqualTo("receipt");
+        assertThat(retry.get(5, TimeUnit.SECONDS)).isEqualTo("receipt");
+        assertThat(runs.get()).isEqualTo(1);
+    }
+    
+    @Test
+    void failedAttemptCanBeRetriedWithTheSameKey() {
+        IdempotencyService service = new IdempotencyService(10, 60, new ObjectMapper());
+        AtomicInteger runs = new AtomicInteger();
+        try {
+            service.execute("sale", "key", "request", () -> {
+                runs.incrementAndGet();
+                throw new RuntimeException("Insufficient stock");
+            });
+        } catch (RuntimeException expected) {
+            // retried below
+        }
+        
+        assertThat(service.execute("sale", "key", "request", () -> runs.incrementAndGet())).isEqualTo(2);
+        assertThat(service.execute("sale", "key", "request", () -> runs.incrementAndGet())).isEqualTo(2);
+    }
+    
+    @Test
+    void keyReusedWithADifferentRequestIsRefused() {
+        IdempotencyService service = new IdempotencyService(10, 60, new ObjectMapper());
+        AtomicInteger runs = new AtomicInteger();
+        
+        assertThat(service.execute("sale", "key", new SaleRequest(1L, 2), () -> runs.incrementAndGet())).isEqualTo(1);
+        assertThat(service.execute("sale", "key", new SaleRequest(1L, 2), () -> runs.incrementAndGet())).isEqualTo(1);
+        assertThatThrownBy(() -> service.execute("sale", "key", new SaleRequest(1L, 5), () -> runs.incrementAndGet()))
+                .isInstanceOf(ConflictException.class);
+        assertThat(runs.get()).isEqualTo(1);
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
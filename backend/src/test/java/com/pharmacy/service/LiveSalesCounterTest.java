@@ -0,0 +1,42 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.LiveSalesSnapshot;
+import com.pharmacy.repository.SaleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LiveSalesCounterTest {
+    
+    @Test
+    void startupRebuildAddsToSalesRecordedMeanwhileAndCountsEachOnce() {
+        SaleRepository saleRepository = mock(SaleRepository.class);
+        LiveSalesCounter counter = new LiveSalesCounter(saleRepository, mock(PlatformTransactionManager.class));
+        LocalDateTime now = LocalDateTime.now();
+        
+        // Sale 1 committed before the startup query and was also recorded by its till;
+        // sale 3 committed after the query, so only the till reports it
+        counter.record(1L, now, new BigDecimal("10.00"), new BigDecimal("4.00"), 2, 1);
+        counter.record(3L, now, new BigDecimal("5.00"), new BigDecimal("1.00"), 1, 1);
+        when(saleRepository.streamLiveCounterSource(any(), any())).thenReturn(Stream.of(
+                new Object[]{now, new BigDecimal("10.00"), new BigDecimal("4.00"), 2, null, 1L},
+                new Object[]{now, new BigDecimal("7.50"), new BigDecimal("2.50"), 3, null, 2L}));
+        counter.rebuildFromDatabase();
+        // A slow till reporting sale 2 after the rebuild already counted it
+        counter.record(2L, now, new BigDecimal("7.50"), new BigDecimal("2.50"), 3, 1);
+        
+        LiveSalesSnapshot today = counter.today();
+        assertThat(today.getTransactionCount()).isEqualTo(3);
+        assertThat(today.getUnitsSold()).isEqualTo(6);
+        assertThat(today.getTotalRevenue()).isEqualByComparingTo("22.50");
+        assertThat(today.getTotalProfit()).isEqualByComparingTo("7.50");
+    }
+}
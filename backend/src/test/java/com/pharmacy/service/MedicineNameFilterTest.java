@@ -0,0 +1,56 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.DataFormat;
+import com.pharmacy.dto.MedicineDTO;
+import com.pharmacy.dto.MedicineFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MedicineNameFilterTest {
+    
+    @Autowired
+    private MedicineService medicineService;
+    
+    @Autowired
+    private MedicineImportService medicineImportService;
+    
+    @Autowired
+    private MedicineQueryService medicineQueryService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void prefixMatchIgnoresCaseForSavedAndImportedRows() throws Exception {
+        TestData.createMedicine(medicineService, "Zentrofen Saved", 10);
+        String csv = "name,category,costPrice,sellingPrice,quantity,expiryDate,reorderLevel,supplierId\n" +
+                "ZENTROFEN Imported,Test,1.00,2.00,10," + LocalDate.now().plusYears(1) + ",5,1\n";
+        assertThat(medicineImportService.importMedicines(DataFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))).getImported()).isEqualTo(1);
+        
+        MedicineFilter filter = new MedicineFilter();
+        filter.setName("  zenTRO ");
+        assertThat(medicineQueryService.query(filter).getItems())
+                .extracting(MedicineDTO::getName)
+                .containsExactlyInAnyOrder("Zentrofen Saved", "ZENTROFEN Imported");
+    }
+    
+    @Test
+    void prefixMatchIsAnIndexRange() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT medicine_id FROM medicines WHERE name_key LIKE 'zentro%' ESCAPE '\\'", String.class);
+        
+        assertThat(plan).containsIgnoringCase("IDX_MEDICINES_NAME_KEY");
+    }
+}
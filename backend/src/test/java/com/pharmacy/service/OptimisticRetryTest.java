@@ -0,0 +1,49 @@
+package com.pharmacy.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OptimisticRetryTest {
+    
+    @Test
+    void retriesUntilAnAttemptWins() {
+        AtomicInteger attempts = new AtomicInteger();
+        
+        String result = OptimisticRetry.run(3, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("lost to a concurrent writer");
+            }
+            return "saved";
+        });
+        
+        assertThat(result).isEqualTo("saved");
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+    
+    @Test
+    void givesUpAfterTheLastAttempt() {
+        AtomicInteger attempts = new AtomicInteger();
+        
+        assertThatThrownBy(() -> OptimisticRetry.run(3, () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("lost to a concurrent writer");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+    
+    @Test
+    void otherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        
+        assertThatThrownBy(() -> OptimisticRetry.run(3, () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("not a version conflict");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,121 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.BasketRequest;
+import com.pharmacy.dto.SaleRequest;
+import com.pharmacy.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Many tills selling the same medicine at once; combining mode is covered by CombinedSaleConcurrencyTest
+@SpringBootTest
+@ActiveProfiles("test")
+class SaleConcurrencyTest {
+    
+    private static final int STOCK = 50;
+    private static final int THREADS = 32;
+    private static final int CALLS = 200;
+    
+    @Autowired
+    private SaleService saleService;
+    
+    @Autowired
+    private MedicineService medicineService;
+    
+    @Autowired
+    private MedicineRepository medicineRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void concurrentSalesNeverOversell() throws Exception {
+        Long medicineId = TestData.createMedicine(medicineService, "Oversell probe", STOCK);
+        AtomicInteger acceptedCalls = new AtomicInteger();
+        AtomicInteger acceptedUnits = new AtomicInteger();
+        AtomicInteger rejectedCalls = new AtomicInteger();
+        List<Throwable> unexpected = Collections.synchronizedList(new ArrayList<>());
+        
+        // Watches the row while the tills run, so a transient negative would be caught too
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger lowestSeen = new AtomicInteger(STOCK);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                Integer quantity = medicineRepository.findQuantityById(medicineId);
+                lowestSeen.accumulateAndGet(quantity, Math::min);
+            }
+        });
+        sampler.start();
+        
+        ExecutorService tills = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLS; i++) {
+            boolean basket = i % 3 == 0;
+            calls.add(tills.submit(() -> {
+                TestData.asCashier();
+                start.await();
+                try {
+                    if (basket) {
+                        BasketRequest request = new BasketRequest();
+                        request.setItems(List.of(new SaleRequest(medicineId, 1)));
+                        saleService.createBasketSale(request);
+                    } else {
+                        saleService.createSale(new SaleRequest(medicineId, 1));
+                    }
+                    acceptedCalls.incrementAndGet();
+                    acceptedUnits.incrementAndGet();
+                } catch (RuntimeException e) {
+                    if (e.getMessage() != null && e.getMessage().startsWith("Insufficient stock")) {
+                        rejectedCalls.incrementAndGet();
+                    } else {
+                        unexpected.add(e);
+                    }
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> call : calls) {
+            call.get(60, TimeUnit.SECONDS);
+        }
+        tills.shutdown();
+        running.set(false);
+        sampler.join();
+        
+        assertThat(unexpected).isEmpty();
+        assertThat(acceptedUnits.get()).isEqualTo(STOCK);
+        assertThat(acceptedCalls.get() + rejectedCalls.get()).isEqualTo(CALLS);
+        assertThat(medicineRepository.findQuantityById(medicineId)).isZero();
+        assertThat(lowestSeen.get()).isGreaterThanOrEqualTo(0);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales WHERE medicine_id = ?", Integer.class, medicineId))
+                .isEqualTo(acceptedCalls.get());
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(remaining_quantity), 0) FROM stock_lots WHERE medicine_id = ?", Integer.class, medicineId))
+                .isZero();
+    }
+}
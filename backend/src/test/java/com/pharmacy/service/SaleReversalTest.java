@@ -0,0 +1,139 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.DataFormat;
+import com.pharmacy.dto.SaleRequest;
+import com.pharmacy.dto.SaleResponse;
+import com.pharmacy.model.Sale;
+import com.pharmacy.repository.MedicineRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SaleReversalTest {
+    
+    @Autowired
+    private SaleService saleService;
+    
+    @Autowired
+    private MedicineService medicineService;
+    
+    @Autowired
+    private MedicineRepository medicineRepository;
+    
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void signIn() {
+        TestData.asCashier();
+    }
+    
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void repeatedReversalReturnsTheFirstOne() {
+        Long medicineId = TestData.createMedicine(medicineService, "Reversal repeated", 10);
+        SaleResponse sale = saleService.createSale(new SaleRequest(medicineId, 3));
+        
+        SaleResponse first = saleService.reverseSale(sale.getSaleId(), Sale.ReversalType.RETURN);
+        SaleResponse second = saleService.reverseSale(sale.getSaleId(), Sale.ReversalType.VOID);
+        
+        assertThat(second.getSaleId()).isEqualTo(first.getSaleId());
+        assertThat(second.getQuantity()).isEqualTo(-3);
+        assertThat(second.getReversalType()).isEqualTo(Sale.ReversalType.RETURN);
+        assertRestoredOnce(medicineId, sale.getSaleId(), 10);
+    }
+    
+    @Test
+    void concurrentReversalsRestoreStockOnce() throws Exception {
+        Long medicineId = TestData.createMedicine(medicineService, "Reversal concurrent", 10);
+        SaleResponse sale = saleService.createSale(new SaleRequest(medicineId, 4));
+        
+        ExecutorService tills = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<SaleResponse>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(tills.submit(() -> {
+                TestData.asCashier();
+                start.await();
+                try {
+                    return saleService.reverseSale(sale.getSaleId(), Sale.ReversalType.RETURN);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+        }
+        start.countDown();
+        List<Long> reversalIds = new ArrayList<>();
+        for (Future<SaleResponse> call : calls) {
+            reversalIds.add(call.get(30, TimeUnit.SECONDS).getSaleId());
+        }
+        tills.shutdown();
+        
+        assertThat(reversalIds).containsOnly(reversalIds.get(0));
+        assertRestoredOnce(medicineId, sale.getSaleId(), 10);
+    }
+    
+    @Test
+    void reversalCannotItselfBeReversed() {
+        Long medicineId = TestData.createMedicine(medicineService, "Reversal of reversal", 10);
+        SaleResponse sale = saleService.createSale(new SaleRequest(medicineId, 2));
+        SaleResponse reversal = saleService.reverseSale(sale.getSaleId(), Sale.ReversalType.VOID);
+        
+        assertThatThrownBy(() -> saleService.reverseSale(reversal.getSaleId(), Sale.ReversalType.VOID))
+                .hasMessage("A reversal cannot itself be reversed");
+        assertRestoredOnce(medicineId, sale.getSaleId(), 10);
+    }
+    
+    @Test
+    void csvExportLinksReversalsToTheirSales() throws Exception {
+        Long medicineId = TestData.createMedicine(medicineService, "Reversal exported", 10);
+        SaleResponse sale = saleService.createSale(new SaleRequest(medicineId, 2));
+        SaleResponse reversal = saleService.reverseSale(sale.getSaleId(), Sale.ReversalType.RETURN);
+        
+        StringWriter csv = new StringWriter();
+        exportService.exportSales(LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1),
+                DataFormat.CSV, csv);
+        
+        List<String> lines = csv.toString().lines().toList();
+        assertThat(lines.get(0)).endsWith(",reversalOfSaleId,reversalType");
+        assertThat(lines).anyMatch(line -> line.startsWith(sale.getSaleId() + ",") && line.endsWith(",,"));
+        assertThat(lines).anyMatch(line -> line.startsWith(reversal.getSaleId() + ",")
+                && line.endsWith("," + sale.getSaleId() + ",RETURN"));
+    }
+    
+    private void assertRestoredOnce(Long medicineId, Long saleId, int startingStock) {
+        assertThat(medicineRepository.findQuantityById(medicineId)).isEqualTo(startingStock);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sales WHERE reversal_of_sale_id = ?", Integer.class, saleId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(remaining_quantity), 0) FROM stock_lots WHERE medicine_id = ?", Integer.class, medicineId))
+                .isEqualTo(startingStock);
+    }
+}
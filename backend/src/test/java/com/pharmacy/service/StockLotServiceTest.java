@@ -0,0 +1,176 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.DataFormat;
+import com.pharmacy.dto.ExpiryItemDTO;
+import com.pharmacy.dto.PurchaseDTO;
+import com.pharmacy.dto.SaleRequest;
+import com.pharmacy.dto.SaleResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockLotServiceTest {
+    
+    @Autowired
+    private SaleService saleService;
+    
+    @Autowired
+    private MedicineService medicineService;
+    
+    @Autowired
+    private PurchaseService purchaseService;
+    
+    @Autowired
+    private MedicineImportService medicineImportService;
+    
+    @Autowired
+    private ReportService reportService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void signIn() {
+        TestData.asCashier();
+    }
+    
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void saleTakesTheSoonestExpiringLotsFirst() {
+        LocalDate today = LocalDate.now();
+        Long medicineId = TestData.createMedicine(medicineService, "Lots first expiry", 5);
+        purchase(medicineId, 6, today.plusDays(90));
+        purchase(medicineId, 4, today.plusDays(30));
+        
+        SaleResponse sale = saleService.createSale(new SaleRequest(medicineId, 6));
+        
+        // 30-day lot emptied, 90-day lot opened, the year-out opening lot untouched
+        assertThat(remainingByExpiry(medicineId)).containsExactly(0, 4, 5);
+        assertThat(jdbcTemplate.queryForList("SELECT quantity FROM lot_allocations WHERE sale_id = ? ORDER BY quantity",
+                Integer.class, sale.getSaleId())).containsExactly(2, 4);
+    }
+    
+    @Test
+    void salesSkipExpiredLotsAndWriteOffsTakeThemFirst() {
+        LocalDate today = LocalDate.now();
+        Long medicineId = TestData.createMedicine(medicineService, "Lots expired", 5);
+        purchase(medicineId, 3, today.minusDays(5));
+        
+        saleService.createSale(new SaleRequest(medicineId, 2));
+        assertThat(remainingByExpiry(medicineId)).containsExactly(3, 3);
+        
+        medicineService.updateStock(medicineId, -4);
+        assertThat(remainingByExpiry(medicineId)).containsExactly(0, 2);
+    }
+    
+    @Test
+    void saleIsRefusedWhenOnlyExpiredLotsCouldCoverIt() {
+        Long medicineId = TestData.createMedicine(medicineService, "Lots expired only", 2);
+        purchase(medicineId, 3, LocalDate.now().minusDays(5));
+        
+        assertThatThrownBy(() -> saleService.createSale(new SaleRequest(medicineId, 4)))
+                .hasMessageStartingWith("Insufficient stock");
+        
+        assertThat(quantityOf(medicineId)).isEqualTo(5);
+        assertThat(remainingByExpiry(medicineId)).containsExactly(3, 2);
+    }
+    
+    @Test
+    void saleRepicksFromTheLotRowsWhenTheIndexIsOutOfDate() {
+        LocalDate today = LocalDate.now();
+        Long medicineId = TestData.createMedicine(medicineService, "Lots drifted", 5);
+        purchase(medicineId, 4, today.plusDays(30));
+        // The row changes behind the index's back
+        jdbcTemplate.update("UPDATE stock_lots SET remaining_quantity = 1 WHERE medicine_id = ? AND expiry_date = ?",
+                medicineId, today.plusDays(30));
+        jdbcTemplate.update("UPDATE medicines SET quantity = 6 WHERE medicine_id = ?", medicineId);
+        
+        SaleResponse sale = saleService.createSale(new SaleRequest(medicineId, 3));
+        
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(quantity) FROM lot_allocations WHERE sale_id = ?",
+                Integer.class, sale.getSaleId())).isEqualTo(3);
+        assertThat(remainingByExpiry(medicineId)).containsExactly(0, 3);
+    }
+    
+    @Test
+    void saleFailsWholeWhenTheLotRowsCannotCoverIt() {
+        Long medicineId = TestData.createMedicine(medicineService, "Lots drifted short", 5);
+        jdbcTemplate.update("UPDATE stock_lots SET remaining_quantity = 2 WHERE medicine_id = ?", medicineId);
+        
+        assertThatThrownBy(() -> saleService.createSale(new SaleRequest(medicineId, 4)))
+                .hasMessageStartingWith("Insufficient stock");
+        
+        assertThat(quantityOf(medicineId)).isEqualTo(5);
+        assertThat(remainingByExpiry(medicineId)).containsExactly(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sales WHERE medicine_id = ?",
+                Integer.class, medicineId)).isZero();
+    }
+    
+    @Test
+    void importedStockIsLottedPickedAndReported() throws Exception {
+        LocalDate today = LocalDate.now();
+        String csv = "name,category,costPrice,sellingPrice,quantity,expiryDate,reorderLevel,supplierId\n" +
+                "Lots imported,Test,1.00,2.00,7," + today.plusDays(10) + ",5,1\n" +
+                "Lots imported empty,Test,1.00,2.00,0," + today.plusDays(10) + ",5,1\n";
+        medicineImportService.importMedicines(DataFormat.CSV,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        Long medicineId = jdbcTemplate.queryForObject(
+                "SELECT medicine_id FROM medicines WHERE name = 'Lots imported'", Long.class);
+        Long emptyId = jdbcTemplate.queryForObject(
+                "SELECT medicine_id FROM medicines WHERE name = 'Lots imported empty'", Long.class);
+        assertThat(remainingByExpiry(medicineId)).containsExactly(7);
+        assertThat(remainingByExpiry(emptyId)).isEmpty();
+        
+        // The imported lot is in the index, and a later delivery shows up in the same report row
+        saleService.createSale(new SaleRequest(medicineId, 2));
+        purchase(medicineId, 4, today.plusDays(20));
+        assertThat(remainingByExpiry(medicineId)).containsExactly(5, 4);
+        
+        ExpiryItemDTO item = reportService.getExpiringMedicines(30).getItems().stream()
+                .filter(row -> row.getMedicineId().equals(medicineId))
+                .findFirst().orElseThrow();
+        assertThat(item.getQuantity()).isEqualTo(9);
+        assertThat(item.getExpiryDate()).isEqualTo(today.plusDays(10));
+        assertThat(reportService.getExpiringMedicines(30).getItems())
+                .extracting(ExpiryItemDTO::getMedicineId).doesNotContain(emptyId);
+    }
+    
+    private void purchase(Long medicineId, int quantity, LocalDate expiryDate) {
+        PurchaseDTO purchase = new PurchaseDTO();
+        purchase.setMedicineId(medicineId);
+        purchase.setSupplierId(1L);
+        purchase.setQuantity(quantity);
+        purchase.setTotalCost(new BigDecimal("1.00").multiply(BigDecimal.valueOf(quantity)));
+        purchase.setExpiryDate(expiryDate);
+        purchaseService.createPurchase(purchase);
+    }
+    
+    private int quantityOf(Long medicineId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM medicines WHERE medicine_id = ?", Integer.class, medicineId);
+    }
+    
+    private List<Integer> remainingByExpiry(Long medicineId) {
+        return jdbcTemplate.queryForList("SELECT remaining_quantity FROM stock_lots WHERE medicine_id = ? " +
+                "ORDER BY expiry_date, lot_id", Integer.class, medicineId);
+    }
+}
@@ -0,0 +1,182 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.SaleRequest;
+import com.pharmacy.dto.SaleResponse;
+import com.pharmacy.repository.MedicineRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "pharmacy.stock.write-combining.enabled=true")
+@ActiveProfiles("test")
+class StockWriteCombinerTest {
+    
+    @Autowired
+    private SaleService saleService;
+    
+    @Autowired
+    private MedicineService medicineService;
+    
+    @Autowired
+    private MedicineRepository medicineRepository;
+    
+    @Autowired
+    private CatalogRevisionService catalogRevisionService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void everyCallerGetsItsOwnAnswer() throws Exception {
+        Long medicineId = TestData.createMedicine(medicineService, "Combined mixed quantities", 40);
+        Map<Long, Integer> accepted = new ConcurrentHashMap<>();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Throwable> unexpected = Collections.synchronizedList(new ArrayList<>());
+        
+        ExecutorService tills = Executors.newFixedThreadPool(24);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> calls = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            int quantity = 1 + i % 4;
+            calls.add(tills.submit(() -> {
+                TestData.asCashier();
+                start.await();
+                try {
+                    SaleResponse sale = saleService.createSale(new SaleRequest(medicineId, quantity));
+                    assertThat(sale.getQuantity()).isEqualTo(quantity);
+                    accepted.put(sale.getSaleId(), quantity);
+                } catch (RuntimeException e) {
+                    if (e.getMessage() != null && e.getMessage().startsWith("Insufficient stock")) {
+                        rejected.incrementAndGet();
+                    } else {
+                        unexpected.add(e);
+                    }
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> call : calls) {
+            call.get(60, TimeUnit.SECONDS);
+        }
+        tills.shutdown();
+        
+        assertThat(unexpected).isEmpty();
+        assertThat(accepted.size() + rejected.get()).isEqualTo(80);
+        int soldUnits = accepted.values().stream().mapToInt(Integer::intValue).sum();
+        int remaining = medicineRepository.findQuantityById(medicineId);
+        assertThat(remaining).isGreaterThanOrEqualTo(0);
+        assertThat(soldUnits).isEqualTo(40 - remaining);
+        // Each accepted caller's own sale row committed, and nobody else's
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT sale_id, quantity FROM sales WHERE medicine_id = ?", medicineId);
+        assertThat(rows).hasSize(accepted.size());
+        for (Map<String, Object> row : rows) {
+            assertThat(accepted.get(((Number) row.get("SALE_ID")).longValue()))
+                    .isEqualTo(((Number) row.get("QUANTITY")).intValue());
+        }
+    }
+    
+    @Test
+    void partialBatchAcceptsInArrivalOrder() throws Exception {
+        Long medicineId = TestData.createMedicine(medicineService, "Combined partial batch", 5);
+        StockWriteCombiner combiner = combiner(200);
+        
+        List<CompletableFuture<StockWriteCombiner.Outcome<Integer>>> outcomes = new ArrayList<>();
+        for (int quantity : new int[]{3, 3, 2}) {
+            outcomes.add(CompletableFuture.supplyAsync(() -> combiner.decrement(medicineId, quantity, () -> quantity)));
+            Thread.sleep(20);
+        }
+        
+        assertThat(outcomes.get(0).get(5, TimeUnit.SECONDS).status()).isEqualTo(StockWriteCombiner.Status.ACCEPTED);
+        assertThat(outcomes.get(1).get(5, TimeUnit.SECONDS).status()).isEqualTo(StockWriteCombiner.Status.REJECTED);
+        assertThat(outcomes.get(2).get(5, TimeUnit.SECONDS).status()).isEqualTo(StockWriteCombiner.Status.ACCEPTED);
+        assertThat(outcomes.get(2).get().value()).isEqualTo(2);
+        assertThat(medicineRepository.findQuantityById(medicineId)).isZero();
+    }
+    
+    @Test
+    void failedWorkRollsBackTheWholeBatch() throws Exception {
+        Long medicineId = TestData.createMedicine(medicineService, "Combined rollback", 10);
+        StockWriteCombiner combiner = combiner(200);
+        
+        CompletableFuture<StockWriteCombiner.Outcome<Object>> failing = CompletableFuture.supplyAsync(() ->
+                combiner.decrement(medicineId, 1, () -> {
+                    throw new RuntimeException("Recording the sale failed");
+                }));
+        Thread.sleep(20);
+        CompletableFuture<StockWriteCombiner.Outcome<Object>> healthy = CompletableFuture.supplyAsync(() ->
+                combiner.decrement(medicineId, 2, () -> "recorded"));
+        
+        // Nothing committed, so both callers are told to redo their own sale
+        assertThat(failing.get(5, TimeUnit.SECONDS).status()).isEqualTo(StockWriteCombiner.Status.UNCOMBINED);
+        assertThat(healthy.get(5, TimeUnit.SECONDS).status()).isEqualTo(StockWriteCombiner.Status.UNCOMBINED);
+        assertThat(medicineRepository.findQuantityById(medicineId)).isEqualTo(10);
+    }
+    
+    @Test
+    void interruptedFollowerIsRejectedWithoutSpinning() throws Exception {
+        Long medicineId = TestData.createMedicine(medicineService, "Combined interrupt", 10);
+        StockWriteCombiner combiner = combiner(500);
+        
+        CompletableFuture<StockWriteCombiner.Outcome<String>> leader = CompletableFuture.supplyAsync(() ->
+                combiner.decrement(medicineId, 2, () -> "leader"));
+        Thread.sleep(50);
+        
+        AtomicBoolean followerWorkRan = new AtomicBoolean();
+        AtomicBoolean stillInterrupted = new AtomicBoolean();
+        CompletableFuture<String> followerError = new CompletableFuture<>();
+        Thread follower = new Thread(() -> {
+            try {
+                combiner.decrement(medicineId, 3, () -> {
+                    followerWorkRan.set(true);
+                    return "follower";
+                });
+                followerError.complete(null);
+            } catch (RuntimeException e) {
+                stillInterrupted.set(Thread.currentThread().isInterrupted());
+                followerError.complete(e.getMessage());
+            }
+        });
+        follower.start();
+        Thread.sleep(50);
+        follower.interrupt();
+        
+        // Answered well before the leader's window closes
+        assertThat(followerError.get(200, TimeUnit.MILLISECONDS)).startsWith("Interrupted");
+        assertThat(stillInterrupted.get()).isTrue();
+        assertThat(leader.get(5, TimeUnit.SECONDS).status()).isEqualTo(StockWriteCombiner.Status.ACCEPTED);
+        assertThat(followerWorkRan.get()).isFalse();
+        assertThat(medicineRepository.findQuantityById(medicineId)).isEqualTo(8);
+    }
+    
+    // A long window makes every caller started inside it land in one batch
+    private StockWriteCombiner combiner(long windowMillis) {
+        return new StockWriteCombiner(medicineRepository, catalogRevisionService, transactionManager, true, windowMillis);
+    }
+}
@@ -0,0 +1,40 @@
+package com.pharmacy.service;
+
+import com.pharmacy.dto.MedicineDTO;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+// Fixtures shared by the service tests; suppliers and users come from DataInitializer
+final class TestData {
+    
+    static final String CASHIER = "cashier@pharmacy.com";
+    
+    private TestData() {
+    }
+    
+    static MedicineDTO medicine(String name, int quantity, LocalDate expiryDate) {
+        MedicineDTO dto = new MedicineDTO();
+        dto.setName(name);
+        dto.setCategory("Test");
+        dto.setCostPrice(new BigDecimal("1.00"));
+        dto.setSellingPrice(new BigDecimal("2.00"));
+        dto.setQuantity(quantity);
+        dto.setExpiryDate(expiryDate);
+        dto.setReorderLevel(5);
+        dto.setSupplierId(1L);
+        return dto;
+    }
+    
+    static Long createMedicine(MedicineService medicineService, String name, int quantity) {
+        return medicineService.createMedicine(medicine(name, quantity, LocalDate.now().plusYears(1))).getMedicineId();
+    }
+    
+    static void asCashier() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(CASHIER, null, List.of()));
+    }
+}
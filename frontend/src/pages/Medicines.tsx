@@ -97,7 +97,8 @@ export const Medicines: React.FC = () => {
       };
 
       if (editingMedicine) {
-        await medicineAPI.update(editingMedicine.medicineId, medicineData);
+        // The version lets the server refuse the edit if stock moved while the form was open
+        await medicineAPI.update(editingMedicine.medicineId, { ...medicineData, version: editingMedicine.version });
         toast.success('Medicine updated successfully');
       } else {
         await medicineAPI.create(medicineData);
@@ -38,6 +38,7 @@ export interface Medicine {
   reorderLevel: number;
   supplierId: number;
   supplierName: string;
+  version?: number;
 }
 
 export interface MedicineDTO {
@@ -49,6 +50,7 @@ export interface MedicineDTO {
   expiryDate: string;
   reorderLevel: number;
   supplierId: number;
+  version?: number;
 }
 
 // Supplier Types